@@ -0,0 +1,56 @@
+package me.pushy.sdk.flutter.benchmark;
+
+import android.content.Intent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+
+import me.pushy.sdk.flutter.util.PushyPersistence;
+
+// PushyInternalReceiver: intent extras (Bundle) to JSON conversion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntentExtrasBenchmark {
+    @Param({"5", "50"})
+    public int extraCount;
+
+    private Intent mIntent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Notification intent as delivered by the Pushy SDK
+        mIntent = new Intent("pushy.me");
+        mIntent.putExtra("title", "Order shipped");
+        mIntent.putExtra("badge", 1);
+        mIntent.putExtra("__json", true);
+
+        // Pad with extra string extras
+        for (int i = mIntent.getExtras().size(); i < extraCount; i++) {
+            mIntent.putExtra("extra" + i, "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public JSONObject getJSONObjectFromIntentExtras() {
+        // Convert extras into the notification payload
+        return PushyPersistence.getJSONObjectFromIntentExtras(mIntent);
+    }
+}
@@ -0,0 +1,63 @@
+package me.pushy.sdk.flutter.benchmark;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+// Shared setup for the benchmarks (one plain JVM context per fork, synthetic payloads)
+class JvmEnvironment {
+    // Resource ID returned for the custom notification icon
+    static final int ICON_ID = 0x7f080001;
+
+    static JvmContext createContext() throws IOException {
+        try {
+            // App without <meta-data> icon (falls through to the SharedPreferences icon)
+            PackageManager packageManager = Mockito.mock(PackageManager.class);
+            Mockito.when(packageManager.getApplicationInfo(Mockito.anyString(), Mockito.anyInt())).thenReturn(new ApplicationInfo());
+
+            // Custom icon found in drawable folders
+            Resources resources = Mockito.mock(Resources.class);
+            Mockito.when(resources.getIdentifier("ic_notification", "drawable", JvmContext.PACKAGE_NAME)).thenReturn(ICON_ID);
+
+            // Plain JVM context with the fakes
+            JvmContext context = new JvmContext();
+            context.setPackageManager(packageManager);
+            context.setResources(resources);
+
+            // All done
+            return context;
+        }
+        catch (PackageManager.NameNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static JSONObject createNotification(int fieldCount) throws Exception {
+        // Typical Pushy payload with a nested object & array
+        JSONObject notification = new JSONObject();
+        notification.put("title", "Order shipped");
+        notification.put("message", "Your order #12345 is on its way and should arrive within 2-3 business days");
+        notification.put("badge", 1);
+        notification.put("__json", true);
+
+        // Nested values
+        notification.put("data", new JSONObject().put("orderId", 12345).put("status", "shipped"));
+        notification.put("tags", new JSONArray().put("orders").put("shipping"));
+
+        // Pad with extra fields
+        for (int i = 0; i < fieldCount; i++) {
+            notification.put("field" + i, "value-" + i);
+        }
+
+        // All done
+        return notification;
+    }
+}
@@ -0,0 +1,51 @@
+package me.pushy.sdk.flutter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+import me.pushy.sdk.flutter.util.PushyNotification;
+import me.pushy.sdk.flutter.util.PushyPersistence;
+
+// PushyNotification.getNotificationIcon(): cached lookup vs full resolution (package manager & resources)
+// Package manager & resources are local fakes, so resolve measures plugin overhead rather than IPC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationIconBenchmark {
+    private JvmContext mContext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Custom icon configured via Pushy.setNotificationIcon()
+        mContext = JvmEnvironment.createContext();
+        PushyPersistence.setNotificationIcon("ic_notification", mContext);
+    }
+
+    @Benchmark
+    public int cached() {
+        // Resolved once, then served from cache
+        return PushyNotification.getNotificationIcon(mContext);
+    }
+
+    @Benchmark
+    public int resolve() {
+        // Drop cache so every call resolves again
+        PushyNotification.invalidateNotificationIcon();
+        return PushyNotification.getNotificationIcon(mContext);
+    }
+}
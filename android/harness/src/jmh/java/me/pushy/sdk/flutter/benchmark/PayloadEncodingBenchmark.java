@@ -0,0 +1,69 @@
+package me.pushy.sdk.flutter.benchmark;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+import me.pushy.sdk.flutter.util.PushyPayloads;
+import me.pushy.sdk.flutter.util.PushyPersistence;
+
+// Channel payload encoding: native map (default) vs stringified JSON (legacy format), single & batched
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+    @Param({"false", "true"})
+    public boolean legacyPayloadFormat;
+
+    @Param({"8", "64"})
+    public int fieldCount;
+
+    private JvmContext mContext;
+    private JSONObject mNotification;
+    private List<JSONObject> mBatch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Payload format under test
+        mContext = JvmEnvironment.createContext();
+        PushyPersistence.setLegacyPayloadFormat(legacyPayloadFormat, mContext);
+
+        // Single notification & a batch of 20
+        mNotification = JvmEnvironment.createNotification(fieldCount);
+        mBatch = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            mBatch.add(JvmEnvironment.createNotification(fieldCount));
+        }
+    }
+
+    @Benchmark
+    public Object encode() {
+        // Single notification event
+        return PushyPayloads.encode(mNotification, mContext);
+    }
+
+    @Benchmark
+    public Object encodeBatch() {
+        // Batched delivery event
+        return PushyPayloads.encode(mBatch, mContext);
+    }
+}
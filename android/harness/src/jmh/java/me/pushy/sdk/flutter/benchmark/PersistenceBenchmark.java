@@ -0,0 +1,80 @@
+package me.pushy.sdk.flutter.benchmark;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+import me.pushy.sdk.flutter.util.PushyNotificationJournal;
+import me.pushy.sdk.flutter.util.PushyPersistence;
+
+// Pending notification journal: append & read cost at steady queue sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"10", "100", "1000"})
+    public int queueSize;
+
+    private JvmContext mContext;
+    private JSONObject mNotification;
+    private PushyNotificationJournal mJournal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Fresh context & journal
+        mContext = JvmEnvironment.createContext();
+        mNotification = JvmEnvironment.createNotification(8);
+
+        // Keep the queue at its size (oldest evicted on append)
+        PushyPersistence.setPendingQueueLimits(queueSize, 0, PushyNotificationJournal.POLICY_DROP_OLDEST, 0, mContext);
+        mJournal = PushyPersistence.getPendingNotificationJournal(mContext);
+
+        // Fill it
+        for (int i = 0; i < queueSize; i++) {
+            PushyPersistence.persistNotification(mNotification, mContext);
+        }
+    }
+
+    @Benchmark
+    public void persistNotification() {
+        // Append (evicting the oldest record)
+        PushyPersistence.persistNotification(mNotification, mContext);
+    }
+
+    @Benchmark
+    public void readPending(Blackhole blackhole) throws Exception {
+        // Hand out every queued record (background isolate path) and release them again
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(queueSize);
+        blackhole.consume(records);
+        mJournal.resetPending();
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) throws Exception {
+        // Peek at every queued record (foreground path, parsed to JSON)
+        mJournal.read(new PushyNotificationJournal.Reader() {
+            @Override
+            public void onNotification(JSONObject notification) {
+                blackhole.consume(notification);
+            }
+        });
+    }
+}
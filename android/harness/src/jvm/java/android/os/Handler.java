@@ -0,0 +1,169 @@
+package android.os;
+
+// Plain JVM replacement for the framework Handler (queues work on the replacement Looper)
+public class Handler {
+    private final Looper mLooper;
+    private final Callback mCallback;
+
+    public interface Callback {
+        boolean handleMessage(Message msg);
+    }
+
+    public Handler() {
+        this(Looper.myLooper(), null);
+    }
+
+    public Handler(Callback callback) {
+        this(Looper.myLooper(), callback);
+    }
+
+    public Handler(Looper looper) {
+        this(looper, null);
+    }
+
+    public Handler(Looper looper, Callback callback) {
+        if (looper == null) {
+            throw new RuntimeException("Can't create handler inside thread " + Thread.currentThread() + " that has not called Looper.prepare()");
+        }
+
+        mLooper = looper;
+        mCallback = callback;
+    }
+
+    public static Handler createAsync(Looper looper) {
+        return new Handler(looper);
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public void handleMessage(Message msg) {
+    }
+
+    public void dispatchMessage(Message msg) {
+        // Posted runnable wrapped in a message?
+        if (msg.getCallback() != null) {
+            msg.getCallback().run();
+            return;
+        }
+
+        // Handled by callback?
+        if (mCallback != null && mCallback.handleMessage(msg)) {
+            return;
+        }
+
+        handleMessage(msg);
+    }
+
+    public final boolean post(Runnable r) {
+        return postAtTime(r, SystemClock.uptimeMillis());
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        return postAtTime(r, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public final boolean postDelayed(Runnable r, Object token, long delayMillis) {
+        return mLooper.enqueue(this, r, null, token, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis) {
+        return mLooper.enqueue(this, r, null, null, uptimeMillis);
+    }
+
+    public final boolean postAtTime(Runnable r, Object token, long uptimeMillis) {
+        return mLooper.enqueue(this, r, null, token, uptimeMillis);
+    }
+
+    public final boolean postAtFrontOfQueue(Runnable r) {
+        return mLooper.enqueueAtFront(this, r, null, null);
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        if (r != null) {
+            mLooper.remove(this, r, null, null);
+        }
+    }
+
+    public final void removeCallbacks(Runnable r, Object token) {
+        if (r != null) {
+            mLooper.remove(this, r, null, token);
+        }
+    }
+
+    public final void removeCallbacksAndMessages(Object token) {
+        mLooper.remove(this, null, null, token);
+    }
+
+    public final boolean hasCallbacks(Runnable r) {
+        return mLooper.has(this, r, null);
+    }
+
+    public final Message obtainMessage() {
+        return Message.obtain(this);
+    }
+
+    public final Message obtainMessage(int what) {
+        return Message.obtain(this, what);
+    }
+
+    public final Message obtainMessage(int what, Object obj) {
+        return Message.obtain(this, what, obj);
+    }
+
+    public final Message obtainMessage(int what, int arg1, int arg2) {
+        return Message.obtain(this, what, arg1, arg2);
+    }
+
+    public final Message obtainMessage(int what, int arg1, int arg2, Object obj) {
+        return Message.obtain(this, what, arg1, arg2, obj);
+    }
+
+    public final boolean sendMessage(Message msg) {
+        return sendMessageAtTime(msg, SystemClock.uptimeMillis());
+    }
+
+    public final boolean sendEmptyMessage(int what) {
+        return sendMessage(obtainMessage(what));
+    }
+
+    public final boolean sendEmptyMessageDelayed(int what, long delayMillis) {
+        return sendMessageDelayed(obtainMessage(what), delayMillis);
+    }
+
+    public final boolean sendEmptyMessageAtTime(int what, long uptimeMillis) {
+        return sendMessageAtTime(obtainMessage(what), uptimeMillis);
+    }
+
+    public final boolean sendMessageDelayed(Message msg, long delayMillis) {
+        return sendMessageAtTime(msg, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+        msg.setTarget(this);
+        return mLooper.enqueue(this, null, msg, msg.obj, uptimeMillis);
+    }
+
+    public final boolean sendMessageAtFrontOfQueue(Message msg) {
+        msg.setTarget(this);
+        return mLooper.enqueueAtFront(this, null, msg, msg.obj);
+    }
+
+    public final void removeMessages(int what) {
+        mLooper.remove(this, null, what, null);
+    }
+
+    public final void removeMessages(int what, Object object) {
+        mLooper.remove(this, null, what, object);
+    }
+
+    public final boolean hasMessages(int what) {
+        return mLooper.has(this, null, what);
+    }
+
+    @Override
+    public String toString() {
+        return "Handler (" + getClass().getName() + ") {" + Integer.toHexString(System.identityHashCode(this)) + "}";
+    }
+}
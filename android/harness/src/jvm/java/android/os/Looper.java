@@ -0,0 +1,314 @@
+package android.os;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+// Plain JVM replacement for the framework Looper (the android-all one is backed by a native MessageQueue)
+// The main looper belongs to the thread that prepares it, which drives it with loop() or the harness pump methods
+public final class Looper {
+    private static final ThreadLocal<Looper> mThreadLocal = new ThreadLocal<>();
+    private static volatile Looper mMainLooper;
+
+    private final Thread mThread;
+    private final MessageQueue mMessageQueue = new MessageQueue(this);
+    private final PriorityQueue<Task> mQueue = new PriorityQueue<>();
+    private long mNextSequence;
+    private boolean mQuit;
+
+    static final class Task implements Comparable<Task> {
+        final Handler mHandler;
+        final Runnable mCallback;
+        final Message mMessage;
+        final Object mToken;
+        final long mWhen;
+        final long mSequence;
+
+        Task(Handler handler, Runnable callback, Message message, Object token, long when, long sequence) {
+            mHandler = handler;
+            mCallback = callback;
+            mMessage = message;
+            mToken = token;
+            mWhen = when;
+            mSequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            // Earliest first, FIFO among equal times
+            if (mWhen != other.mWhen) {
+                return mWhen < other.mWhen ? -1 : 1;
+            }
+
+            return Long.compare(mSequence, other.mSequence);
+        }
+    }
+
+    private Looper() {
+        mThread = Thread.currentThread();
+    }
+
+    public static void prepare() {
+        if (mThreadLocal.get() != null) {
+            throw new RuntimeException("Only one Looper may be created per thread");
+        }
+
+        mThreadLocal.set(new Looper());
+    }
+
+    public static synchronized void prepareMainLooper() {
+        // Already prepared on this thread (test classes share one main thread)?
+        if (mMainLooper != null && mMainLooper.mThread == Thread.currentThread()) {
+            return;
+        }
+
+        if (mMainLooper != null) {
+            throw new IllegalStateException("The main Looper has already been prepared.");
+        }
+
+        prepare();
+        mMainLooper = myLooper();
+    }
+
+    public static Looper getMainLooper() {
+        return mMainLooper;
+    }
+
+    public static Looper myLooper() {
+        return mThreadLocal.get();
+    }
+
+    public static void loop() {
+        Looper looper = myLooper();
+
+        if (looper == null) {
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        }
+
+        // Run until quit
+        looper.runUntil(new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                return false;
+            }
+        }, Long.MAX_VALUE);
+    }
+
+    public static MessageQueue myQueue() {
+        Looper looper = myLooper();
+
+        if (looper == null) {
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        }
+
+        return looper.mMessageQueue;
+    }
+
+    public MessageQueue getQueue() {
+        return mMessageQueue;
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    public boolean isCurrentThread() {
+        return mThread == Thread.currentThread();
+    }
+
+    public void quit() {
+        synchronized (this) {
+            mQuit = true;
+            mQueue.clear();
+            notifyAll();
+        }
+    }
+
+    public void quitSafely() {
+        quit();
+    }
+
+    // Runs everything due now, then the idle handlers (harness only)
+    public void idle() {
+        checkThread();
+
+        while (runNext()) {
+            // Keep going
+        }
+
+        // Nothing due anymore
+        mMessageQueue.runIdleHandlers();
+
+        // Idle handlers may have posted more work
+        while (runNext()) {
+            // Keep going
+        }
+    }
+
+    // Moves the clock forward, running delayed work as it comes due (harness only)
+    public void idleFor(long ms) {
+        checkThread();
+
+        // Target time
+        long target = SystemClock.uptimeMillis() + ms;
+
+        while (true) {
+            // Run what's due
+            idle();
+
+            // Next delayed task within range?
+            long next;
+
+            synchronized (this) {
+                next = mQueue.isEmpty() ? Long.MAX_VALUE : mQueue.peek().mWhen;
+            }
+
+            long now = SystemClock.uptimeMillis();
+
+            if (next > target) {
+                // Skip the rest of the way
+                if (target > now) {
+                    SystemClock.advance(target - now);
+                }
+
+                idle();
+                return;
+            }
+
+            // Skip ahead to the next task
+            if (next > now) {
+                SystemClock.advance(next - now);
+            }
+        }
+    }
+
+    // Runs work (including work posted from other threads) until the condition holds or the real-time timeout elapses (harness only)
+    public boolean runUntil(BooleanSupplier condition, long timeoutMs) {
+        checkThread();
+
+        // Real-time deadline
+        long deadline = timeoutMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMs;
+
+        while (true) {
+            // Run what's due
+            idle();
+
+            // Done?
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+
+            synchronized (this) {
+                // Quit or timed out?
+                if (mQuit || System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+
+                // Wait for the next task (or new work from another thread)
+                long wait = mQueue.isEmpty() ? 10 : Math.max(1, Math.min(10, mQueue.peek().mWhen - SystemClock.uptimeMillis()));
+
+                try {
+                    wait(wait);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    synchronized boolean isIdleNow() {
+        return mQueue.isEmpty() || mQueue.peek().mWhen > SystemClock.uptimeMillis();
+    }
+
+    // Number of queued tasks (harness only)
+    public synchronized int getQueueSize() {
+        return mQueue.size();
+    }
+
+    synchronized boolean enqueue(Handler handler, Runnable callback, Message message, Object token, long when) {
+        if (mQuit) {
+            return false;
+        }
+
+        mQueue.add(new Task(handler, callback, message, token, when, mNextSequence++));
+        notifyAll();
+        return true;
+    }
+
+    synchronized boolean enqueueAtFront(Handler handler, Runnable callback, Message message, Object token) {
+        if (mQuit) {
+            return false;
+        }
+
+        mQueue.add(new Task(handler, callback, message, token, Long.MIN_VALUE, mNextSequence++));
+        notifyAll();
+        return true;
+    }
+
+    synchronized void remove(Handler handler, Runnable callback, Integer what, Object token) {
+        Iterator<Task> iterator = mQueue.iterator();
+
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+
+            if (task.mHandler != handler) {
+                continue;
+            }
+
+            if (callback != null && task.mCallback != callback) {
+                continue;
+            }
+
+            if (what != null && (task.mMessage == null || task.mMessage.what != what)) {
+                continue;
+            }
+
+            if (token != null && task.mToken != token) {
+                continue;
+            }
+
+            iterator.remove();
+        }
+    }
+
+    synchronized boolean has(Handler handler, Runnable callback, Integer what) {
+        for (Task task : mQueue) {
+            if (task.mHandler == handler && (callback == null || task.mCallback == callback) && (what == null || (task.mMessage != null && task.mMessage.what == what))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean runNext() {
+        Task task;
+
+        synchronized (this) {
+            // Nothing due?
+            if (mQueue.isEmpty() || mQueue.peek().mWhen > SystemClock.uptimeMillis()) {
+                return false;
+            }
+
+            task = mQueue.poll();
+        }
+
+        // Run outside the lock
+        if (task.mCallback != null) {
+            task.mCallback.run();
+        }
+        else {
+            task.mHandler.dispatchMessage(task.mMessage);
+        }
+
+        return true;
+    }
+
+    private void checkThread() {
+        if (!isCurrentThread()) {
+            throw new IllegalStateException("Looper is driven from " + mThread.getName() + ", not " + Thread.currentThread().getName());
+        }
+    }
+}
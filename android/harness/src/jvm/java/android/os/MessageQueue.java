@@ -0,0 +1,49 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plain JVM replacement for the framework MessageQueue (idle handlers only, tasks live in the replacement Looper)
+public final class MessageQueue {
+    private final Looper mLooper;
+    private final List<IdleHandler> mIdleHandlers = new ArrayList<>();
+
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+
+    MessageQueue(Looper looper) {
+        mLooper = looper;
+    }
+
+    public void addIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.remove(handler);
+        }
+    }
+
+    public boolean isIdle() {
+        return mLooper.isIdleNow();
+    }
+
+    void runIdleHandlers() {
+        List<IdleHandler> handlers;
+
+        synchronized (this) {
+            handlers = new ArrayList<>(mIdleHandlers);
+        }
+
+        // Keep the ones that return true
+        for (IdleHandler handler : handlers) {
+            if (!handler.queueIdle()) {
+                removeIdleHandler(handler);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package android.os;
+
+// Plain JVM replacement for the framework Process (the android-all one is native)
+public class Process {
+    public static final int THREAD_PRIORITY_DEFAULT = 0;
+    public static final int THREAD_PRIORITY_LOWEST = 19;
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+    public static final int THREAD_PRIORITY_FOREGROUND = -2;
+    public static final int THREAD_PRIORITY_DISPLAY = -4;
+    public static final int THREAD_PRIORITY_URGENT_DISPLAY = -8;
+    public static final int THREAD_PRIORITY_AUDIO = -16;
+    public static final int THREAD_PRIORITY_URGENT_AUDIO = -19;
+    public static final int THREAD_PRIORITY_MORE_FAVORABLE = -1;
+    public static final int THREAD_PRIORITY_LESS_FAVORABLE = 1;
+
+    public static final int SYSTEM_UID = 1000;
+    public static final int FIRST_APPLICATION_UID = 10000;
+
+    public static int myPid() {
+        return (int) ProcessHandle.current().pid();
+    }
+
+    public static int myTid() {
+        return (int) Thread.currentThread().getId();
+    }
+
+    public static int myUid() {
+        return FIRST_APPLICATION_UID;
+    }
+
+    public static UserHandle myUserHandle() {
+        return UserHandle.of(0);
+    }
+
+    public static void setThreadPriority(int priority) {
+    }
+
+    public static void setThreadPriority(int tid, int priority) {
+    }
+
+    public static int getThreadPriority(int tid) {
+        return THREAD_PRIORITY_DEFAULT;
+    }
+
+    public static long getElapsedCpuTime() {
+        return SystemClock.uptimeMillis();
+    }
+
+    public static long getStartElapsedRealtime() {
+        return 0;
+    }
+
+    public static long getStartUptimeMillis() {
+        return 0;
+    }
+
+    public static boolean is64Bit() {
+        return true;
+    }
+
+    public static boolean isIsolated() {
+        return false;
+    }
+
+    public static void killProcess(int pid) {
+    }
+
+    public static void sendSignal(int pid, int signal) {
+    }
+}
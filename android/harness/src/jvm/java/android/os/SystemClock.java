@@ -0,0 +1,50 @@
+package android.os;
+
+// Plain JVM replacement for the framework SystemClock (the android-all one is native)
+// Time can be moved forward by the harness (Looper.idleFor()) to run delayed work without waiting
+public final class SystemClock {
+    private static final long START_NANOS = System.nanoTime();
+
+    // Virtual time skipped ahead of the real clock
+    private static volatile long mOffsetMs;
+
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return (System.nanoTime() - START_NANOS) / 1000000 + mOffsetMs;
+    }
+
+    public static long elapsedRealtime() {
+        return uptimeMillis();
+    }
+
+    public static long elapsedRealtimeNanos() {
+        return uptimeMillis() * 1000000;
+    }
+
+    public static long uptimeNanos() {
+        return uptimeMillis() * 1000000;
+    }
+
+    public static long currentThreadTimeMillis() {
+        return uptimeMillis();
+    }
+
+    public static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static boolean setCurrentTimeMillis(long millis) {
+        return false;
+    }
+
+    static void advance(long ms) {
+        mOffsetMs += ms;
+    }
+}
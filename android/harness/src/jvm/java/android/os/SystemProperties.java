@@ -0,0 +1,115 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Plain JVM replacement for the framework SystemProperties (the android-all one is native)
+// Reports an API 34 device, everything else falls back to the caller's default
+public class SystemProperties {
+    public static final int PROP_NAME_MAX = Integer.MAX_VALUE;
+    public static final int PROP_VALUE_MAX = 91;
+
+    private static final Map<String, String> mProperties = new HashMap<>();
+
+    static {
+        mProperties.put("ro.build.version.sdk", "34");
+        mProperties.put("ro.build.version.release", "14");
+        mProperties.put("ro.build.version.codename", "REL");
+        mProperties.put("ro.build.version.all_codenames", "REL");
+        mProperties.put("ro.product.cpu.abilist", "x86_64,x86");
+        mProperties.put("ro.product.cpu.abilist32", "x86");
+        mProperties.put("ro.product.cpu.abilist64", "x86_64");
+    }
+
+    public static class Handle {
+        private final String mName;
+
+        private Handle(String name) {
+            mName = name;
+        }
+
+        public String get() {
+            return SystemProperties.get(mName);
+        }
+
+        public int getInt(int def) {
+            return SystemProperties.getInt(mName, def);
+        }
+
+        public long getLong(long def) {
+            return SystemProperties.getLong(mName, def);
+        }
+
+        public boolean getBoolean(boolean def) {
+            return SystemProperties.getBoolean(mName, def);
+        }
+    }
+
+    public static String get(String key) {
+        return get(key, "");
+    }
+
+    public static synchronized String get(String key, String def) {
+        String value = mProperties.get(key);
+        return value != null ? value : def;
+    }
+
+    public static int getInt(String key, int def) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(def)));
+        }
+        catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        try {
+            return Long.parseLong(get(key, String.valueOf(def)));
+        }
+        catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        String value = get(key, "");
+
+        if (value.equals("1") || value.equals("true") || value.equals("y") || value.equals("yes") || value.equals("on")) {
+            return true;
+        }
+
+        if (value.equals("0") || value.equals("false") || value.equals("n") || value.equals("no") || value.equals("off")) {
+            return false;
+        }
+
+        return def;
+    }
+
+    public static synchronized void set(String key, String val) {
+        mProperties.put(key, val);
+    }
+
+    public static void addChangeCallback(Runnable callback) {
+    }
+
+    public static void removeChangeCallback(Runnable callback) {
+    }
+
+    public static void reportSyspropChanged() {
+    }
+
+    public static String digestOf(String... keys) {
+        StringBuilder digest = new StringBuilder();
+
+        for (String key : keys) {
+            digest.append(key).append('=').append(get(key)).append('\n');
+        }
+
+        return Integer.toHexString(digest.toString().hashCode());
+    }
+
+    public static synchronized Handle find(String name) {
+        return mProperties.containsKey(name) ? new Handle(name) : null;
+    }
+}
@@ -0,0 +1,67 @@
+package dalvik.system;
+
+import java.lang.reflect.Array;
+
+// Plain JVM replacement for the ART VMRuntime (the android-all one is native), used by framework collections
+public final class VMRuntime {
+    private static final VMRuntime THE_ONE = new VMRuntime();
+
+    private int mTargetSdkVersion = 34;
+
+    private VMRuntime() {
+    }
+
+    public static VMRuntime getRuntime() {
+        return THE_ONE;
+    }
+
+    public static int getSdkVersion() {
+        return 34;
+    }
+
+    public synchronized int getTargetSdkVersion() {
+        return mTargetSdkVersion;
+    }
+
+    public synchronized void setTargetSdkVersion(int targetSdkVersion) {
+        mTargetSdkVersion = targetSdkVersion;
+    }
+
+    public Object newUnpaddedArray(Class<?> componentType, int minLength) {
+        return Array.newInstance(componentType, minLength);
+    }
+
+    public Object newNonMovableArray(Class<?> componentType, int length) {
+        return Array.newInstance(componentType, length);
+    }
+
+    public boolean is64Bit() {
+        return true;
+    }
+
+    public boolean isJavaDebuggable() {
+        return false;
+    }
+
+    public boolean isNativeDebuggable() {
+        return false;
+    }
+
+    public void registerNativeAllocation(long bytes) {
+    }
+
+    public void registerNativeAllocation(int bytes) {
+    }
+
+    public void registerNativeFree(long bytes) {
+    }
+
+    public void registerNativeFree(int bytes) {
+    }
+
+    public void notifyNativeAllocation() {
+    }
+
+    public void requestConcurrentGC() {
+    }
+}
@@ -0,0 +1,214 @@
+package me.pushy.sdk.flutter.jvm;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+import android.net.ConnectivityManager;
+import android.net.IConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Application context for running the plugin on a plain JVM
+// Files go to a fresh temp directory, preferences stay in memory, connectivity & broadcasts are simulated
+public class JvmContext extends ContextWrapper {
+    public static final String PACKAGE_NAME = "me.pushy.sdk.flutter.harness";
+
+    // Simulated network handle (the only network)
+    private static final int NETWORK_ID = 100;
+
+    private final File mFilesDir;
+    private final Map<String, SharedPreferences> mPreferences = new HashMap<>();
+    private final Map<BroadcastReceiver, IntentFilter> mReceivers = new LinkedHashMap<>();
+    private ConnectivityManager mConnectivityManager;
+
+    private PackageManager mPackageManager;
+    private Resources mResources;
+    private volatile boolean mOnline = true;
+
+    public JvmContext() throws IOException {
+        super(null);
+
+        // Fresh files directory per context
+        mFilesDir = Files.createTempDirectory("pushy-jvm").toFile();
+    }
+
+    public void setPackageManager(PackageManager packageManager) {
+        mPackageManager = packageManager;
+    }
+
+    public void setResources(Resources resources) {
+        mResources = resources;
+    }
+
+    @SuppressWarnings("deprecation")
+    public void setOnline(boolean online) {
+        // Update connectivity
+        mOnline = online;
+
+        // Notify connectivity receivers
+        sendBroadcast(new Intent(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    public synchronized int getReceiverCount() {
+        return mReceivers.size();
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public String getPackageName() {
+        return PACKAGE_NAME;
+    }
+
+    @Override
+    public String getOpPackageName() {
+        return PACKAGE_NAME;
+    }
+
+    @Override
+    public String getAttributionTag() {
+        return null;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return mFilesDir;
+    }
+
+    @Override
+    public File getNoBackupFilesDir() {
+        return mFilesDir;
+    }
+
+    @Override
+    public File getCacheDir() {
+        return mFilesDir;
+    }
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        SharedPreferences preferences = mPreferences.get(name);
+
+        if (preferences == null) {
+            preferences = new JvmSharedPreferences();
+            mPreferences.put(name, preferences);
+        }
+
+        return preferences;
+    }
+
+    @Override
+    public AssetManager getAssets() {
+        // No APK assets (the fake Dart side ignores the asset manager)
+        return null;
+    }
+
+    @Override
+    public PackageManager getPackageManager() {
+        return mPackageManager;
+    }
+
+    @Override
+    public Resources getResources() {
+        return mResources;
+    }
+
+    @Override
+    public synchronized Object getSystemService(String name) {
+        // Only connectivity is simulated
+        if (!Context.CONNECTIVITY_SERVICE.equals(name)) {
+            return null;
+        }
+
+        // Create on first use
+        if (mConnectivityManager == null) {
+            mConnectivityManager = createConnectivityManager();
+        }
+
+        return mConnectivityManager;
+    }
+
+    private ConnectivityManager createConnectivityManager() {
+        // Connectivity manager answering from mOnline
+        return new ConnectivityManager(this, (IConnectivityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{IConnectivityManager.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                // Active network (connected or not)
+                if (method.getName().equals("getActiveNetworkInfo")) {
+                    NetworkInfo networkInfo = new NetworkInfo(ConnectivityManager.TYPE_WIFI, 0, "WIFI", "");
+                    networkInfo.setDetailedState(mOnline ? NetworkInfo.DetailedState.CONNECTED : NetworkInfo.DetailedState.DISCONNECTED, null, null);
+                    return networkInfo;
+                }
+
+                // Active network (API 23+ path), none while offline
+                if (method.getName().equals("getActiveNetwork")) {
+                    return mOnline ? new Network(NETWORK_ID) : null;
+                }
+
+                // Capabilities of the active network
+                if (method.getName().equals("getNetworkCapabilities")) {
+                    return mOnline ? new NetworkCapabilities.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build() : null;
+                }
+
+                // Everything else is unused
+                return null;
+            }
+        }));
+    }
+
+    @Override
+    public synchronized Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        mReceivers.put(receiver, filter);
+        return null;
+    }
+
+    @Override
+    public synchronized void unregisterReceiver(BroadcastReceiver receiver) {
+        if (mReceivers.remove(receiver) == null) {
+            throw new IllegalArgumentException("Receiver not registered: " + receiver);
+        }
+    }
+
+    @Override
+    public void sendBroadcast(final Intent intent) {
+        // Deliver to matching receivers on the main thread
+        final Map<BroadcastReceiver, IntentFilter> receivers;
+
+        synchronized (this) {
+            receivers = new LinkedHashMap<>(mReceivers);
+        }
+
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                for (Map.Entry<BroadcastReceiver, IntentFilter> entry : receivers.entrySet()) {
+                    if (entry.getValue().hasAction(intent.getAction())) {
+                        entry.getKey().onReceive(JvmContext.this, intent);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package me.pushy.sdk.flutter.jvm;
+
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// In-memory SharedPreferences for running the plugin on a plain JVM
+public class JvmSharedPreferences implements SharedPreferences {
+    private final Map<String, Object> mValues = new HashMap<>();
+
+    // Held weakly, like the framework implementation
+    private final Map<OnSharedPreferenceChangeListener, Object> mListeners = new WeakHashMap<>();
+
+    @Override
+    public synchronized Map<String, ?> getAll() {
+        return new HashMap<>(mValues);
+    }
+
+    @Override
+    public synchronized String getString(String key, String defValue) {
+        return mValues.containsKey(key) ? (String) mValues.get(key) : defValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Set<String> getStringSet(String key, Set<String> defValues) {
+        return mValues.containsKey(key) ? (Set<String>) mValues.get(key) : defValues;
+    }
+
+    @Override
+    public synchronized int getInt(String key, int defValue) {
+        return mValues.containsKey(key) ? (Integer) mValues.get(key) : defValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defValue) {
+        return mValues.containsKey(key) ? (Long) mValues.get(key) : defValue;
+    }
+
+    @Override
+    public synchronized float getFloat(String key, float defValue) {
+        return mValues.containsKey(key) ? (Float) mValues.get(key) : defValue;
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defValue) {
+        return mValues.containsKey(key) ? (Boolean) mValues.get(key) : defValue;
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mValues.containsKey(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new JvmEditor();
+    }
+
+    @Override
+    public synchronized void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        mListeners.put(listener, this);
+    }
+
+    @Override
+    public synchronized void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        mListeners.remove(listener);
+    }
+
+    private void notifyListeners(boolean cleared, Set<String> keys) {
+        List<OnSharedPreferenceChangeListener> listeners;
+
+        synchronized (this) {
+            listeners = new ArrayList<>(mListeners.keySet());
+        }
+
+        // Notified on the writing thread (the framework posts to the main thread), a null key reports a clear (API 30+)
+        for (OnSharedPreferenceChangeListener listener : listeners) {
+            if (cleared) {
+                listener.onSharedPreferenceChanged(this, null);
+            }
+
+            for (String key : keys) {
+                listener.onSharedPreferenceChanged(this, key);
+            }
+        }
+    }
+
+    private class JvmEditor implements Editor {
+        private final Map<String, Object> mChanges = new HashMap<>();
+        private final Set<String> mRemovals = new HashSet<>();
+        private boolean mClear;
+
+        @Override
+        public Editor putString(String key, String value) {
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putStringSet(String key, Set<String> values) {
+            mChanges.put(key, values == null ? null : new HashSet<>(values));
+            return this;
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor remove(String key) {
+            mRemovals.add(key);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            mClear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            apply();
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            Set<String> keys = new HashSet<>(mRemovals);
+            keys.addAll(mChanges.keySet());
+
+            synchronized (JvmSharedPreferences.this) {
+                if (mClear) {
+                    mValues.clear();
+                }
+
+                for (String key : mRemovals) {
+                    mValues.remove(key);
+                }
+
+                for (Map.Entry<String, Object> change : mChanges.entrySet()) {
+                    if (change.getValue() == null) {
+                        mValues.remove(change.getKey());
+                    }
+                    else {
+                        mValues.put(change.getKey(), change.getValue());
+                    }
+                }
+            }
+
+            notifyListeners(mClear, keys);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package androidx.core.app;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.net.Uri;
+
+// Stub of the AndroidX NotificationCompat, backed by the framework Notification.Builder (API 26+)
+public class NotificationCompat {
+    public static class Builder {
+        private final Notification.Builder mBuilder;
+
+        public Builder(Context context, String channelId) {
+            mBuilder = new Notification.Builder(context, channelId);
+        }
+
+        public Builder setSmallIcon(int icon) {
+            mBuilder.setSmallIcon(icon);
+            return this;
+        }
+
+        public Builder setContentTitle(CharSequence title) {
+            mBuilder.setContentTitle(title);
+            return this;
+        }
+
+        public Builder setContentText(CharSequence text) {
+            mBuilder.setContentText(text);
+            return this;
+        }
+
+        public Builder setAutoCancel(boolean autoCancel) {
+            mBuilder.setAutoCancel(autoCancel);
+            return this;
+        }
+
+        public Builder setVibrate(long[] pattern) {
+            mBuilder.setVibrate(pattern);
+            return this;
+        }
+
+        public Builder setSound(Uri sound) {
+            mBuilder.setSound(sound);
+            return this;
+        }
+
+        public Builder setContentIntent(PendingIntent intent) {
+            mBuilder.setContentIntent(intent);
+            return this;
+        }
+
+        public Builder setStyle(Style style) {
+            mBuilder.setStyle(style.mStyle);
+            return this;
+        }
+
+        public Builder setNumber(int number) {
+            mBuilder.setNumber(number);
+            return this;
+        }
+
+        public Builder setGroup(String groupKey) {
+            mBuilder.setGroup(groupKey);
+            return this;
+        }
+
+        public Builder setGroupSummary(boolean isGroupSummary) {
+            mBuilder.setGroupSummary(isGroupSummary);
+            return this;
+        }
+
+        public Builder setOnlyAlertOnce(boolean onlyAlertOnce) {
+            mBuilder.setOnlyAlertOnce(onlyAlertOnce);
+            return this;
+        }
+
+        public Builder setChannelId(String channelId) {
+            mBuilder.setChannelId(channelId);
+            return this;
+        }
+
+        public Notification build() {
+            return mBuilder.build();
+        }
+    }
+
+    public abstract static class Style {
+        final Notification.Style mStyle;
+
+        Style(Notification.Style style) {
+            mStyle = style;
+        }
+    }
+
+    public static class InboxStyle extends Style {
+        public InboxStyle() {
+            super(new Notification.InboxStyle());
+        }
+
+        public InboxStyle addLine(CharSequence line) {
+            ((Notification.InboxStyle) mStyle).addLine(line);
+            return this;
+        }
+
+        public InboxStyle setSummaryText(CharSequence text) {
+            ((Notification.InboxStyle) mStyle).setSummaryText(text);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package androidx.preference;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+// Stub of the AndroidX PreferenceManager (same file name as the real one)
+public class PreferenceManager {
+    public static SharedPreferences getDefaultSharedPreferences(Context context) {
+        // Default preferences file of the package
+        return context.getSharedPreferences(context.getPackageName() + "_preferences", Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,18 @@
+package io.flutter;
+
+import io.flutter.embedding.engine.loader.FlutterLoader;
+
+// Stub of the Flutter embedding's FlutterInjector
+public final class FlutterInjector {
+    private static final FlutterInjector INSTANCE = new FlutterInjector();
+
+    private final FlutterLoader flutterLoader = new FlutterLoader();
+
+    public static FlutterInjector instance() {
+        return INSTANCE;
+    }
+
+    public FlutterLoader flutterLoader() {
+        return flutterLoader;
+    }
+}
@@ -0,0 +1,54 @@
+package io.flutter.embedding.engine;
+
+import android.content.Context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.flutter.embedding.engine.dart.DartExecutor;
+
+// Stub of the Flutter embedding's FlutterEngine
+public class FlutterEngine {
+    private static final AtomicInteger mLiveCount = new AtomicInteger();
+
+    // Stands in for GeneratedPluginRegistrant (the real engine registers the app's plugins from its constructor)
+    private static volatile PluginRegistrant mPluginRegistrant;
+
+    private final DartExecutor dartExecutor = new DartExecutor();
+    private boolean destroyed;
+
+    public FlutterEngine(Context context) {
+        mLiveCount.incrementAndGet();
+
+        // Attach plugins synchronously, like automaticallyRegisterPlugins
+        PluginRegistrant registrant = mPluginRegistrant;
+
+        if (registrant != null) {
+            registrant.registerWith(this);
+        }
+    }
+
+    public static void setPluginRegistrant(PluginRegistrant registrant) {
+        // Plugins attached to every engine created from now on (harness only)
+        mPluginRegistrant = registrant;
+    }
+
+    public static int getLiveCount() {
+        // Engines created but not destroyed yet (harness only)
+        return mLiveCount.get();
+    }
+
+    public DartExecutor getDartExecutor() {
+        return dartExecutor;
+    }
+
+    public void destroy() {
+        if (!destroyed) {
+            destroyed = true;
+            mLiveCount.decrementAndGet();
+        }
+    }
+
+    public interface PluginRegistrant {
+        void registerWith(FlutterEngine engine);
+    }
+}
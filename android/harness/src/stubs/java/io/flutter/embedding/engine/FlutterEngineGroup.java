@@ -0,0 +1,39 @@
+package io.flutter.embedding.engine;
+
+import android.content.Context;
+
+import java.util.List;
+
+import io.flutter.embedding.engine.dart.DartExecutor;
+
+// Stub of the Flutter embedding's FlutterEngineGroup
+public class FlutterEngineGroup {
+    public FlutterEngineGroup(Context context) {
+    }
+
+    public FlutterEngine createAndRunEngine(Options options) {
+        FlutterEngine engine = new FlutterEngine(options.context);
+        engine.getDartExecutor().executeDartEntrypoint(options.dartEntrypoint, options.dartEntrypointArgs);
+        return engine;
+    }
+
+    public static class Options {
+        private final Context context;
+        private DartExecutor.DartEntrypoint dartEntrypoint;
+        private List<String> dartEntrypointArgs;
+
+        public Options(Context context) {
+            this.context = context;
+        }
+
+        public Options setDartEntrypoint(DartExecutor.DartEntrypoint dartEntrypoint) {
+            this.dartEntrypoint = dartEntrypoint;
+            return this;
+        }
+
+        public Options setDartEntrypointArgs(List<String> dartEntrypointArgs) {
+            this.dartEntrypointArgs = dartEntrypointArgs;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.flutter.embedding.engine.dart;
+
+import android.content.res.AssetManager;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.view.FlutterCallbackInformation;
+
+// Stub of the Flutter embedding's DartExecutor
+// No Dart VM: the harness plays the Dart side through setFakeDart() (not part of the real embedding)
+public class DartExecutor implements BinaryMessenger {
+    private static volatile FakeDart mFakeDart;
+
+    private final BinaryMessenger mMessenger;
+
+    public interface FakeDart {
+        // Messenger connecting this engine's platform channels to the fake Dart side
+        BinaryMessenger createMessenger();
+
+        // Dart code started on an engine (callback name or entry point function)
+        void run(DartExecutor executor, String entrypoint, List<String> args);
+    }
+
+    public static void setFakeDart(FakeDart fakeDart) {
+        mFakeDart = fakeDart;
+    }
+
+    public DartExecutor() {
+        FakeDart fakeDart = mFakeDart;
+        mMessenger = fakeDart != null ? fakeDart.createMessenger() : null;
+    }
+
+    public void executeDartCallback(DartCallback callback) {
+        FakeDart fakeDart = mFakeDart;
+
+        if (fakeDart != null) {
+            fakeDart.run(this, callback.callbackHandle.callbackName, null);
+        }
+    }
+
+    public void executeDartEntrypoint(DartEntrypoint entrypoint, List<String> args) {
+        FakeDart fakeDart = mFakeDart;
+
+        if (fakeDart != null) {
+            fakeDart.run(this, entrypoint.dartEntrypointFunctionName, args);
+        }
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message) {
+        send(channel, message, null);
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message, BinaryReply callback) {
+        // Nobody on the Dart side
+        if (mMessenger == null) {
+            if (callback != null) {
+                callback.reply(null);
+            }
+            return;
+        }
+
+        mMessenger.send(channel, message, callback);
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {
+        if (mMessenger != null) {
+            mMessenger.setMessageHandler(channel, handler);
+        }
+    }
+
+    public static class DartCallback {
+        public final AssetManager androidAssetManager;
+        public final String pathToBundle;
+        public final FlutterCallbackInformation callbackHandle;
+
+        public DartCallback(AssetManager androidAssetManager, String pathToBundle, FlutterCallbackInformation callbackHandle) {
+            this.androidAssetManager = androidAssetManager;
+            this.pathToBundle = pathToBundle;
+            this.callbackHandle = callbackHandle;
+        }
+    }
+
+    public static class DartEntrypoint {
+        public final String pathToBundle;
+        public final String dartEntrypointLibrary;
+        public final String dartEntrypointFunctionName;
+
+        public DartEntrypoint(String pathToBundle, String dartEntrypointLibrary, String dartEntrypointFunctionName) {
+            this.pathToBundle = pathToBundle;
+            this.dartEntrypointLibrary = dartEntrypointLibrary;
+            this.dartEntrypointFunctionName = dartEntrypointFunctionName;
+        }
+    }
+}
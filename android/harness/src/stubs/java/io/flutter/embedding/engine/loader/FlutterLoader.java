@@ -0,0 +1,13 @@
+package io.flutter.embedding.engine.loader;
+
+import android.content.Context;
+
+// Stub of the Flutter embedding's FlutterLoader
+public class FlutterLoader {
+    public void startInitialization(Context applicationContext) {
+    }
+
+    public String findAppBundlePath() {
+        return "flutter_assets";
+    }
+}
@@ -0,0 +1,12 @@
+package io.flutter.embedding.engine.plugins.activity;
+
+// Stub of the Flutter embedding's ActivityAware
+public interface ActivityAware {
+    void onAttachedToActivity(ActivityPluginBinding binding);
+
+    void onDetachedFromActivityForConfigChanges();
+
+    void onReattachedToActivityForConfigChanges(ActivityPluginBinding binding);
+
+    void onDetachedFromActivity();
+}
@@ -0,0 +1,14 @@
+package io.flutter.embedding.engine.plugins.activity;
+
+import android.app.Activity;
+
+import io.flutter.plugin.common.PluginRegistry;
+
+// Stub of the Flutter embedding's ActivityPluginBinding
+public interface ActivityPluginBinding {
+    Activity getActivity();
+
+    void addOnNewIntentListener(PluginRegistry.NewIntentListener listener);
+
+    void removeOnNewIntentListener(PluginRegistry.NewIntentListener listener);
+}
@@ -0,0 +1,63 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's BasicMessageChannel
+public final class BasicMessageChannel<T> {
+    private final BinaryMessenger messenger;
+    private final String name;
+    private final MessageCodec<T> codec;
+    private final BinaryMessenger.TaskQueue taskQueue;
+
+    public interface MessageHandler<T> {
+        void onMessage(T message, Reply<T> reply);
+    }
+
+    public interface Reply<T> {
+        void reply(T reply);
+    }
+
+    public BasicMessageChannel(BinaryMessenger messenger, String name, MessageCodec<T> codec) {
+        this(messenger, name, codec, null);
+    }
+
+    public BasicMessageChannel(BinaryMessenger messenger, String name, MessageCodec<T> codec, BinaryMessenger.TaskQueue taskQueue) {
+        this.messenger = messenger;
+        this.name = name;
+        this.codec = codec;
+        this.taskQueue = taskQueue;
+    }
+
+    public void send(T message) {
+        send(message, null);
+    }
+
+    public void send(T message, final Reply<T> callback) {
+        messenger.send(name, codec.encodeMessage(message), callback == null ? null : new BinaryMessenger.BinaryReply() {
+            @Override
+            public void reply(ByteBuffer reply) {
+                callback.reply(codec.decodeMessage(reply));
+            }
+        });
+    }
+
+    public void setMessageHandler(final MessageHandler<T> handler) {
+        // Unregister?
+        if (handler == null) {
+            messenger.setMessageHandler(name, null, taskQueue);
+            return;
+        }
+
+        messenger.setMessageHandler(name, new BinaryMessenger.BinaryMessageHandler() {
+            @Override
+            public void onMessage(ByteBuffer message, final BinaryMessenger.BinaryReply reply) {
+                handler.onMessage(codec.decodeMessage(message), new Reply<T>() {
+                    @Override
+                    public void reply(T response) {
+                        reply.reply(codec.encodeMessage(response));
+                    }
+                });
+            }
+        }, taskQueue);
+    }
+}
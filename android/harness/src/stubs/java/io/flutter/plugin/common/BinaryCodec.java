@@ -0,0 +1,22 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's BinaryCodec (passes buffers through)
+public final class BinaryCodec implements MessageCodec<ByteBuffer> {
+    public static final BinaryCodec INSTANCE = new BinaryCodec();
+    public static final BinaryCodec INSTANCE_DIRECT = new BinaryCodec();
+
+    private BinaryCodec() {
+    }
+
+    @Override
+    public ByteBuffer encodeMessage(ByteBuffer message) {
+        return message;
+    }
+
+    @Override
+    public ByteBuffer decodeMessage(ByteBuffer message) {
+        return message;
+    }
+}
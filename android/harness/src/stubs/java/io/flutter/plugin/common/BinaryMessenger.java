@@ -0,0 +1,32 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's BinaryMessenger (platform side of platform channels)
+public interface BinaryMessenger {
+    interface TaskQueue {
+    }
+
+    interface BinaryReply {
+        void reply(ByteBuffer reply);
+    }
+
+    interface BinaryMessageHandler {
+        void onMessage(ByteBuffer message, BinaryReply reply);
+    }
+
+    default TaskQueue makeBackgroundTaskQueue() {
+        return new TaskQueue() {
+        };
+    }
+
+    void send(String channel, ByteBuffer message);
+
+    void send(String channel, ByteBuffer message, BinaryReply callback);
+
+    void setMessageHandler(String channel, BinaryMessageHandler handler);
+
+    default void setMessageHandler(String channel, BinaryMessageHandler handler, TaskQueue taskQueue) {
+        setMessageHandler(channel, handler);
+    }
+}
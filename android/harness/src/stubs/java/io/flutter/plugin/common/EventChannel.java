@@ -0,0 +1,70 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's EventChannel ("listen" / "cancel" calls in, events out through the BinaryMessenger)
+public final class EventChannel {
+    private final BinaryMessenger messenger;
+    private final String name;
+    private final StandardMethodCodec codec = StandardMethodCodec.INSTANCE;
+
+    public interface StreamHandler {
+        void onListen(Object arguments, EventSink events);
+
+        void onCancel(Object arguments);
+    }
+
+    public interface EventSink {
+        void success(Object event);
+
+        void error(String errorCode, String errorMessage, Object errorDetails);
+
+        void endOfStream();
+    }
+
+    public EventChannel(BinaryMessenger messenger, String name) {
+        this.messenger = messenger;
+        this.name = name;
+    }
+
+    public void setStreamHandler(final StreamHandler handler) {
+        // Unregister?
+        if (handler == null) {
+            messenger.setMessageHandler(name, null);
+            return;
+        }
+
+        messenger.setMessageHandler(name, new BinaryMessenger.BinaryMessageHandler() {
+            @Override
+            public void onMessage(ByteBuffer message, BinaryMessenger.BinaryReply reply) {
+                MethodCall call = codec.decodeMethodCall(message);
+
+                // Dart side subscribed
+                if ("listen".equals(call.method)) {
+                    handler.onListen(call.arguments, new EventSink() {
+                        @Override
+                        public void success(Object event) {
+                            messenger.send(name, codec.encodeSuccessEnvelope(event));
+                        }
+
+                        @Override
+                        public void error(String errorCode, String errorMessage, Object errorDetails) {
+                            messenger.send(name, codec.encodeErrorEnvelope(errorCode, errorMessage, errorDetails));
+                        }
+
+                        @Override
+                        public void endOfStream() {
+                            messenger.send(name, null);
+                        }
+                    });
+                }
+                // Dart side unsubscribed
+                else if ("cancel".equals(call.method)) {
+                    handler.onCancel(call.arguments);
+                }
+
+                reply.reply(codec.encodeSuccessEnvelope(null));
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package io.flutter.plugin.common;
+
+// Stub of the Flutter embedding's FlutterException (error envelope)
+public class FlutterException extends RuntimeException {
+    public final String code;
+    public final Object details;
+
+    public FlutterException(String code, String message, Object details) {
+        super(message);
+        this.code = code;
+        this.details = details;
+    }
+}
@@ -0,0 +1,10 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's MessageCodec
+public interface MessageCodec<T> {
+    ByteBuffer encodeMessage(T message);
+
+    T decodeMessage(ByteBuffer message);
+}
@@ -0,0 +1,81 @@
+package io.flutter.plugin.common;
+
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's MethodChannel (routes calls through the BinaryMessenger)
+public class MethodChannel {
+    private final BinaryMessenger messenger;
+    private final String name;
+    private final StandardMethodCodec codec = StandardMethodCodec.INSTANCE;
+
+    public interface MethodCallHandler {
+        void onMethodCall(MethodCall call, Result result);
+    }
+
+    public interface Result {
+        void success(Object result);
+
+        void error(String errorCode, String errorMessage, Object errorDetails);
+
+        void notImplemented();
+    }
+
+    public MethodChannel(BinaryMessenger messenger, String name) {
+        this.messenger = messenger;
+        this.name = name;
+    }
+
+    public void invokeMethod(String method, Object arguments) {
+        invokeMethod(method, arguments, null);
+    }
+
+    public void invokeMethod(String method, Object arguments, final Result callback) {
+        messenger.send(name, codec.encodeMethodCall(new MethodCall(method, arguments)), callback == null ? null : new BinaryMessenger.BinaryReply() {
+            @Override
+            public void reply(ByteBuffer reply) {
+                // No handler on the other side
+                if (reply == null) {
+                    callback.notImplemented();
+                    return;
+                }
+
+                try {
+                    callback.success(codec.decodeEnvelope(reply));
+                }
+                catch (FlutterException e) {
+                    callback.error(e.code, e.getMessage(), e.details);
+                }
+            }
+        });
+    }
+
+    public void setMethodCallHandler(final MethodCallHandler handler) {
+        // Unregister?
+        if (handler == null) {
+            messenger.setMessageHandler(name, null);
+            return;
+        }
+
+        messenger.setMessageHandler(name, new BinaryMessenger.BinaryMessageHandler() {
+            @Override
+            public void onMessage(ByteBuffer message, final BinaryMessenger.BinaryReply reply) {
+                handler.onMethodCall(codec.decodeMethodCall(message), new Result() {
+                    @Override
+                    public void success(Object result) {
+                        reply.reply(codec.encodeSuccessEnvelope(result));
+                    }
+
+                    @Override
+                    public void error(String errorCode, String errorMessage, Object errorDetails) {
+                        reply.reply(codec.encodeErrorEnvelope(errorCode, errorMessage, errorDetails));
+                    }
+
+                    @Override
+                    public void notImplemented() {
+                        reply.reply(null);
+                    }
+                });
+            }
+        });
+    }
+}
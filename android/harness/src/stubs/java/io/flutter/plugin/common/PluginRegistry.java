@@ -0,0 +1,10 @@
+package io.flutter.plugin.common;
+
+import android.content.Intent;
+
+// Stub of the Flutter embedding's PluginRegistry listeners
+public interface PluginRegistry {
+    interface NewIntentListener {
+        boolean onNewIntent(Intent intent);
+    }
+}
@@ -0,0 +1,75 @@
+package io.flutter.plugin.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+// Stub of the Flutter embedding's StandardMethodCodec
+// Values (maps, lists, strings, numbers, byte[]) are encoded with Java serialization instead of the Flutter wire format
+public final class StandardMethodCodec {
+    public static final StandardMethodCodec INSTANCE = new StandardMethodCodec();
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    public ByteBuffer encodeMethodCall(MethodCall call) {
+        return encode(new Object[]{call.method, call.arguments});
+    }
+
+    public MethodCall decodeMethodCall(ByteBuffer message) {
+        Object[] call = (Object[]) decode(message);
+        return new MethodCall((String) call[0], call[1]);
+    }
+
+    public ByteBuffer encodeSuccessEnvelope(Object result) {
+        return encode(new Object[]{SUCCESS, result});
+    }
+
+    public ByteBuffer encodeErrorEnvelope(String code, String message, Object details) {
+        return encode(new Object[]{ERROR, code, message, details});
+    }
+
+    public Object decodeEnvelope(ByteBuffer envelope) {
+        Object[] values = (Object[]) decode(envelope);
+
+        // Error envelope?
+        if (ERROR.equals(values[0])) {
+            throw new FlutterException((String) values[1], (String) values[2], values[3]);
+        }
+
+        return values[1];
+    }
+
+    private static ByteBuffer encode(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream output = new ObjectOutputStream(bytes);
+            output.writeObject(value);
+            output.close();
+
+            // Direct buffer, like the real codec
+            byte[] array = bytes.toByteArray();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(array.length);
+            buffer.put(array);
+            buffer.flip();
+            return buffer;
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Unsupported value: " + value, e);
+        }
+    }
+
+    private static Object decode(ByteBuffer buffer) {
+        try {
+            byte[] array = new byte[buffer.remaining()];
+            buffer.duplicate().get(array);
+            return new ObjectInputStream(new ByteArrayInputStream(array)).readObject();
+        }
+        catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Corrupted message", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.flutter.view;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Stub of the Flutter embedding's FlutterCallbackInformation
+// Callback handles are registered by the harness (the real lookup reads the app's Dart callback cache)
+public final class FlutterCallbackInformation {
+    private static final Map<Long, FlutterCallbackInformation> mCallbacks = new ConcurrentHashMap<>();
+
+    public final String callbackName;
+    public final String callbackClassName;
+    public final String callbackLibraryPath;
+
+    private FlutterCallbackInformation(String callbackName, String callbackClassName, String callbackLibraryPath) {
+        this.callbackName = callbackName;
+        this.callbackClassName = callbackClassName;
+        this.callbackLibraryPath = callbackLibraryPath;
+    }
+
+    public static void register(long handle, String callbackName) {
+        mCallbacks.put(handle, new FlutterCallbackInformation(callbackName, "", "package:pushy_flutter/pushy_flutter.dart"));
+    }
+
+    public static FlutterCallbackInformation lookupCallbackInformation(long handle) {
+        return mCallbacks.get(handle);
+    }
+}
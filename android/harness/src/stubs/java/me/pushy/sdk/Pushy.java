@@ -0,0 +1,159 @@
+package me.pushy.sdk;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import me.pushy.sdk.model.PushyDeviceCredentials;
+import me.pushy.sdk.util.exceptions.PushyException;
+
+// Local fake of the Pushy SDK static API (no network)
+// Records every call and simulates latency & failures, controlled through the static fake* methods
+public class Pushy {
+    private static final List<String> mCalls = Collections.synchronizedList(new ArrayList<String>());
+    private static final Set<String> mTopics = Collections.synchronizedSet(new LinkedHashSet<String>());
+
+    private static volatile long mLatencyMs;
+    private static volatile boolean mOffline;
+    private static volatile PushyDeviceCredentials mCredentials;
+
+    public static void fakeReset() {
+        // Forget calls, topics & registration
+        mCalls.clear();
+        mTopics.clear();
+        mLatencyMs = 0;
+        mOffline = false;
+        mCredentials = null;
+    }
+
+    public static void fakeSetLatency(long latencyMs) {
+        // Simulated round trip time of network-bound calls
+        mLatencyMs = latencyMs;
+    }
+
+    public static void fakeSetOffline(boolean offline) {
+        // Network-bound calls fail while offline
+        mOffline = offline;
+    }
+
+    public static List<String> fakeGetCalls() {
+        // Snapshot of recorded calls (e.g. "subscribe [news, sports]")
+        synchronized (mCalls) {
+            return new ArrayList<>(mCalls);
+        }
+    }
+
+    public static Set<String> fakeGetTopics() {
+        // Snapshot of subscribed topics
+        synchronized (mTopics) {
+            return new LinkedHashSet<>(mTopics);
+        }
+    }
+
+    public static void listen(Context context) {
+        record("listen");
+    }
+
+    public static String register(Context context) throws PushyException {
+        // Simulate round trip
+        roundTrip("register");
+
+        // Assign a device token (once)
+        if (mCredentials == null) {
+            mCredentials = new PushyDeviceCredentials("fake-token-" + System.nanoTime(), "fake-auth-key");
+        }
+
+        // All done
+        return mCredentials.token;
+    }
+
+    public static boolean isRegistered(Context context) {
+        return mCredentials != null;
+    }
+
+    public static PushyDeviceCredentials getDeviceCredentials(Context context) {
+        return mCredentials;
+    }
+
+    public static void setDeviceCredentials(PushyDeviceCredentials credentials, Context context) throws PushyException {
+        roundTrip("setDeviceCredentials");
+        mCredentials = credentials;
+    }
+
+    public static void subscribe(String[] topics, Context context) throws PushyException {
+        roundTrip("subscribe " + Arrays.toString(topics));
+        mTopics.addAll(Arrays.asList(topics));
+    }
+
+    public static void unsubscribe(String[] topics, Context context) throws PushyException {
+        roundTrip("unsubscribe " + Arrays.toString(topics));
+        mTopics.removeAll(Arrays.asList(topics));
+    }
+
+    public static String getFCMToken() throws PushyException {
+        roundTrip("getFCMToken");
+        return "fake-fcm-token";
+    }
+
+    public static void setAppId(String appId, Context context) {
+        record("setAppId " + appId);
+    }
+
+    public static void setEnterpriseConfig(String apiEndpoint, String mqttEndpoint, Context context) {
+        record("setEnterpriseConfig " + apiEndpoint + " " + mqttEndpoint);
+    }
+
+    public static void setJobServiceInterval(int interval, Context context) {
+        record("setJobServiceInterval " + interval);
+    }
+
+    public static void setHeartbeatInterval(int interval, Context context) {
+        record("setHeartbeatInterval " + interval);
+    }
+
+    public static void toggleNotifications(boolean value, Context context) {
+        record("toggleNotifications " + value);
+    }
+
+    public static void toggleFCM(boolean value, Context context) {
+        record("toggleFCM " + value);
+    }
+
+    public static void toggleForegroundService(boolean value, Context context) {
+        record("toggleForegroundService " + value);
+    }
+
+    public static void setNotificationChannel(Object builder, Context context) {
+        record("setNotificationChannel");
+    }
+
+    private static void roundTrip(String call) throws PushyException {
+        // Record call
+        record(call);
+
+        // Simulate network latency
+        if (mLatencyMs > 0) {
+            try {
+                Thread.sleep(mLatencyMs);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PushyException("Interrupted");
+            }
+        }
+
+        // Simulate connectivity loss
+        if (mOffline) {
+            throw new PushyException("Unable to resolve host \"api.pushy.me\": No address associated with hostname");
+        }
+    }
+
+    private static void record(String call) {
+        mCalls.add(call);
+    }
+}
@@ -0,0 +1,6 @@
+package me.pushy.sdk.config;
+
+// Stub of the Pushy SDK logging config
+public class PushyLogging {
+    public static final String TAG = "Pushy";
+}
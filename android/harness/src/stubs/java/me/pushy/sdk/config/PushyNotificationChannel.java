@@ -0,0 +1,7 @@
+package me.pushy.sdk.config;
+
+// Stub of the Pushy SDK notification channel config
+public class PushyNotificationChannel {
+    public static final String CHANNEL_ID = "pushy";
+    public static final String CHANNEL_NAME = "Push Notifications";
+}
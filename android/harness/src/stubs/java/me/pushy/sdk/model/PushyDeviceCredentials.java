@@ -0,0 +1,12 @@
+package me.pushy.sdk.model;
+
+// Stub of the Pushy SDK device credentials model
+public class PushyDeviceCredentials {
+    public String token;
+    public String authKey;
+
+    public PushyDeviceCredentials(String token, String authKey) {
+        this.token = token;
+        this.authKey = authKey;
+    }
+}
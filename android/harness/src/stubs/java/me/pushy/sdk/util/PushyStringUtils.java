@@ -0,0 +1,8 @@
+package me.pushy.sdk.util;
+
+// Stub of the Pushy SDK string helpers
+public class PushyStringUtils {
+    public static boolean stringIsNullOrEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+}
@@ -0,0 +1,8 @@
+package me.pushy.sdk.util.exceptions;
+
+// Stub of the Pushy SDK exception
+public class PushyException extends Exception {
+    public PushyException(String message) {
+        super(message);
+    }
+}
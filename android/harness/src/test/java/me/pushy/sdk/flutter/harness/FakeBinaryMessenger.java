@@ -0,0 +1,245 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.FlutterException;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+// Stands in for the Dart side of an engine's platform channels
+// Dart -> platform calls reach the plugin's handlers on the main thread, platform -> Dart messages go to a pluggable Dart handler
+public class FakeBinaryMessenger implements BinaryMessenger {
+    // Returned by a Dart handler to reply notImplemented
+    public static final Object NOT_IMPLEMENTED = new Object();
+
+    private static final long CALL_TIMEOUT_MS = 10 * 1000;
+
+    private final StandardMethodCodec mCodec = StandardMethodCodec.INSTANCE;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, BinaryMessageHandler> mHandlers = new ConcurrentHashMap<>();
+    private final Map<String, List<Object>> mEvents = new HashMap<>();
+    private final AtomicLong mMessageCount = new AtomicLong();
+
+    private volatile DartHandler mDartHandler;
+    private volatile EventListener mEventListener;
+
+    public interface DartHandler {
+        // Result of a platform -> Dart method call (NOT_IMPLEMENTED, or throw FlutterException for an error reply)
+        Object onMethodCall(String channel, MethodCall call);
+    }
+
+    public interface EventListener {
+        // Event channel event (FlutterException for error events), on the sending thread
+        void onEvent(String channel, Object event);
+    }
+
+    public void setDartHandler(DartHandler handler) {
+        mDartHandler = handler;
+    }
+
+    public void setEventListener(EventListener listener) {
+        mEventListener = listener;
+    }
+
+    public boolean hasHandler(String channel) {
+        return mHandlers.containsKey(channel);
+    }
+
+    public long getMessageCount() {
+        return mMessageCount.get();
+    }
+
+    public synchronized List<Object> getEvents(String channel) {
+        List<Object> events = mEvents.get(channel);
+        return events != null ? new ArrayList<>(events) : new ArrayList<>();
+    }
+
+    public void invokeMethod(final String channel, final String method, final Object arguments, final MethodChannel.Result result) {
+        // Platform messages are handled on the main thread
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                BinaryMessageHandler handler = mHandlers.get(channel);
+
+                // Nothing listening on the platform side
+                if (handler == null) {
+                    if (result != null) {
+                        result.notImplemented();
+                    }
+                    return;
+                }
+
+                handler.onMessage(mCodec.encodeMethodCall(new MethodCall(method, arguments)), new BinaryReply() {
+                    @Override
+                    public void reply(ByteBuffer reply) {
+                        if (result == null) {
+                            return;
+                        }
+
+                        // No handler for this method
+                        if (reply == null) {
+                            result.notImplemented();
+                            return;
+                        }
+
+                        try {
+                            result.success(mCodec.decodeEnvelope(reply));
+                        }
+                        catch (FlutterException e) {
+                            result.error(e.code, e.getMessage(), e.details);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    // Invokes a platform method and pumps the main looper until it replies (call from the main thread)
+    public Object invokeMethodAndWait(String channel, String method, Object arguments) {
+        final AtomicReference<Object> reply = new AtomicReference<>();
+
+        invokeMethod(channel, method, arguments, new MethodChannel.Result() {
+            @Override
+            public void success(Object result) {
+                reply.set(new Object[]{result});
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                reply.set(new FlutterException(errorCode, errorMessage, errorDetails));
+            }
+
+            @Override
+            public void notImplemented() {
+                reply.set(NOT_IMPLEMENTED);
+            }
+        });
+
+        boolean replied = Looper.getMainLooper().runUntil(new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                return reply.get() != null;
+            }
+        }, CALL_TIMEOUT_MS);
+
+        if (!replied) {
+            throw new AssertionError("No reply to " + method + " on " + channel);
+        }
+
+        // Error reply?
+        if (reply.get() instanceof FlutterException) {
+            throw (FlutterException) reply.get();
+        }
+
+        return reply.get() == NOT_IMPLEMENTED ? NOT_IMPLEMENTED : ((Object[]) reply.get())[0];
+    }
+
+    public void listen(String channel) {
+        // Subscribe to an event channel
+        invokeMethod(channel, "listen", null, null);
+    }
+
+    public void cancel(String channel) {
+        // Unsubscribe from an event channel
+        invokeMethod(channel, "cancel", null, null);
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message) {
+        send(channel, message, null);
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message, final BinaryReply callback) {
+        mMessageCount.incrementAndGet();
+
+        // No reply expected? Event channel event (null = end of stream)
+        if (callback == null) {
+            onEvent(channel, message);
+            return;
+        }
+
+        // Method call into Dart
+        DartHandler handler = mDartHandler;
+        ByteBuffer reply;
+
+        if (handler == null) {
+            reply = null;
+        }
+        else {
+            try {
+                Object result = handler.onMethodCall(channel, mCodec.decodeMethodCall(message));
+                reply = result == NOT_IMPLEMENTED ? null : mCodec.encodeSuccessEnvelope(result);
+            }
+            catch (FlutterException e) {
+                reply = mCodec.encodeErrorEnvelope(e.code, e.getMessage(), e.details);
+            }
+        }
+
+        // Replies arrive on the main thread
+        final ByteBuffer envelope = reply;
+
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.reply(envelope);
+            }
+        });
+    }
+
+    private void onEvent(String channel, ByteBuffer message) {
+        Object event;
+
+        if (message == null) {
+            event = null;
+        }
+        else {
+            try {
+                event = mCodec.decodeEnvelope(message);
+            }
+            catch (FlutterException e) {
+                event = e;
+            }
+        }
+
+        synchronized (this) {
+            List<Object> events = mEvents.get(channel);
+
+            if (events == null) {
+                events = new ArrayList<>();
+                mEvents.put(channel, events);
+            }
+
+            events.add(event);
+        }
+
+        EventListener listener = mEventListener;
+
+        if (listener != null) {
+            listener.onEvent(channel, event);
+        }
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {
+        if (handler == null) {
+            mHandlers.remove(channel);
+        }
+        else {
+            mHandlers.put(channel, handler);
+        }
+    }
+}
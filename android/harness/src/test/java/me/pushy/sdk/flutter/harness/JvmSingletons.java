@@ -0,0 +1,22 @@
+package me.pushy.sdk.flutter.harness;
+
+import java.lang.reflect.Field;
+
+// Drops process-wide plugin singletons between tests of the same class (each test class runs in a fresh JVM)
+public final class JvmSingletons {
+    private JvmSingletons() {
+    }
+
+    public static void reset(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            try {
+                Field field = clazz.getDeclaredField("mInstance");
+                field.setAccessible(true);
+                field.set(null, null);
+            }
+            catch (ReflectiveOperationException e) {
+                throw new AssertionError("Failed to reset " + clazz.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.os.Looper;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+
+// Notifications reach a background isolate that is already running (app not in the foreground)
+public class PushyBackgroundIsolateLoadTest {
+    @BeforeClass
+    public static void setUpClass() {
+        // Test thread is the main thread
+        Looper.prepareMainLooper();
+    }
+
+    @Test
+    public void burstReachesRunningIsolate() throws Exception {
+        PushyLoadHarness harness = new PushyLoadHarness(new JvmContext());
+
+        // Isolate started ahead of the burst
+        harness.installBackgroundIsolate(0);
+        harness.startBackgroundIsolate();
+
+        PushyLoadHarness.Report report = harness.run("backgroundIsolate");
+
+        // Delivered once each through the journal, isolate not restarted
+        assertEquals(report.toString(), 0, report.mDropped);
+        assertEquals(report.toString(), 0, report.mDuplicates);
+        assertEquals(report.toString(), 0, report.mEvictedCount);
+        assertEquals(report.toString(), 1, report.mIsolateStartCount);
+    }
+}
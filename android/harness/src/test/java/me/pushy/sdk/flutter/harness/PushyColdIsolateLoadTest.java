@@ -0,0 +1,37 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.os.Looper;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Burst arrives while no isolate is running (first notification starts it, the rest wait in the journal)
+public class PushyColdIsolateLoadTest {
+    @BeforeClass
+    public static void setUpClass() {
+        // Test thread is the main thread
+        Looper.prepareMainLooper();
+    }
+
+    @Test
+    public void burstStartsIsolateOnce() throws Exception {
+        PushyLoadHarness harness = new PushyLoadHarness(new JvmContext());
+        harness.installBackgroundIsolate(PushyLoadHarness.COLD_START_MS);
+
+        PushyLoadHarness.Report report = harness.run("coldIsolate");
+
+        // Delivered once each, a single cold start for the whole burst
+        assertEquals(report.toString(), 0, report.mDropped);
+        assertEquals(report.toString(), 0, report.mDuplicates);
+        assertEquals(report.toString(), 0, report.mEvictedCount);
+        assertEquals(report.toString(), 1, report.mIsolateStartCount);
+
+        // First notifications waited out the cold start
+        assertTrue(report.toString(), report.mMaxLatencyMs >= PushyLoadHarness.COLD_START_MS);
+    }
+}
@@ -0,0 +1,75 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.app.Activity;
+import android.os.Looper;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
+import io.flutter.plugin.common.PluginRegistry;
+import me.pushy.sdk.flutter.PushyPlugin;
+import me.pushy.sdk.flutter.config.PushyChannels;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+
+// Notifications reach the foreground listener (activity running, Dart app listening for events)
+public class PushyForegroundLoadTest {
+    @BeforeClass
+    public static void setUpClass() {
+        // Test thread is the main thread
+        Looper.prepareMainLooper();
+    }
+
+    @Test
+    public void burstReachesForegroundListener() throws Exception {
+        JvmContext context = new JvmContext();
+        final PushyLoadHarness harness = new PushyLoadHarness(context);
+
+        // Engine with a running activity
+        FakeBinaryMessenger messenger = new FakeBinaryMessenger();
+        PushyPlugin plugin = new PushyPlugin();
+        plugin.onAttachedToEngine(new FlutterPlugin.FlutterPluginBinding(context, messenger));
+        plugin.onAttachedToActivity(createActivityBinding(new Activity()));
+
+        // Dart app listens for notification events
+        messenger.setEventListener(new FakeBinaryMessenger.EventListener() {
+            @Override
+            public void onEvent(String channel, Object event) {
+                if (PushyChannels.EVENT_CHANNEL.equals(channel)) {
+                    harness.onHandled(event);
+                }
+            }
+        });
+
+        messenger.listen(PushyChannels.EVENT_CHANNEL);
+        Looper.getMainLooper().idle();
+
+        PushyLoadHarness.Report report = harness.run("foreground");
+
+        // Delivered once each, never journaled
+        assertEquals(report.toString(), 0, report.mDropped);
+        assertEquals(report.toString(), 0, report.mDuplicates);
+        assertEquals(report.toString(), 0, report.mMaxJournalCount);
+        assertEquals(report.toString(), 0, report.mIsolateStartCount);
+    }
+
+    private static ActivityPluginBinding createActivityBinding(final Activity activity) {
+        return new ActivityPluginBinding() {
+            @Override
+            public Activity getActivity() {
+                return activity;
+            }
+
+            @Override
+            public void addOnNewIntentListener(PluginRegistry.NewIntentListener listener) {
+            }
+
+            @Override
+            public void removeOnNewIntentListener(PluginRegistry.NewIntentListener listener) {
+            }
+        };
+    }
+}
@@ -0,0 +1,372 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.app.ActivityManager;
+import android.app.IActivityManager;
+import android.content.BroadcastReceiver;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Singleton;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import io.flutter.embedding.engine.dart.DartExecutor;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.view.FlutterCallbackInformation;
+import me.pushy.sdk.flutter.config.PushyChannels;
+import me.pushy.sdk.flutter.internal.PushyInternalReceiver;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+import me.pushy.sdk.flutter.util.PushyFlutterBackgroundExecutor;
+import me.pushy.sdk.flutter.util.PushyPersistence;
+
+// Feeds synthetic notification intents into PushyInternalReceiver at a fixed rate and measures what reaches the Dart handler
+// Tune with -Dpushy.load.rate (notifications / minute), -Dpushy.load.seconds, -Dpushy.load.payloadBytes & -Dpushy.load.coldStartMs
+public class PushyLoadHarness {
+    public static final int RATE_PER_MINUTE = Integer.getInteger("pushy.load.rate", 10000);
+    public static final int SECONDS = Integer.getInteger("pushy.load.seconds", 3);
+    public static final int PAYLOAD_BYTES = Integer.getInteger("pushy.load.payloadBytes", 512);
+    public static final int COLD_START_MS = Integer.getInteger("pushy.load.coldStartMs", 250);
+
+    // Callback handles registered for the background isolate
+    private static final long ISOLATE_CALLBACK_ID = 1;
+    private static final long NOTIFICATION_HANDLER_CALLBACK_ID = 2;
+
+    // Time allowed after the last intent for deliveries to settle
+    private static final long SETTLE_TIMEOUT_MS = 30 * 1000;
+
+    private static final String LOAD_ID = "loadId";
+
+    private final JvmContext mContext;
+    private final PushyInternalReceiver mReceiver = new PushyInternalReceiver();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Map<Integer, Long> mSentAt = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> mHandledAt = new ConcurrentHashMap<>();
+    private final AtomicInteger mDuplicateCount = new AtomicInteger();
+
+    private FakeBinaryMessenger mIsolateMessenger;
+    private int mIsolateStartCount;
+
+    public static class Report {
+        public String mPath;
+        public int mSent;
+        public int mHandled;
+        public int mDropped;
+        public int mDuplicates;
+        public double mP50LatencyMs;
+        public double mP99LatencyMs;
+        public double mMaxLatencyMs;
+        public int mMaxJournalCount;
+        public int mMaxLooperQueueSize;
+        public long mEvictedCount;
+        public long mHeapDeltaKb;
+        public int mIsolateStartCount;
+
+        @Override
+        public String toString() {
+            return String.format("[%s] sent=%d handled=%d dropped=%d duplicates=%d latency p50=%.2fms p99=%.2fms max=%.2fms maxJournal=%d maxLooperQueue=%d evicted=%d heapDelta=%dkB isolateStarts=%d",
+                    mPath, mSent, mHandled, mDropped, mDuplicates, mP50LatencyMs, mP99LatencyMs, mMaxLatencyMs, mMaxJournalCount, mMaxLooperQueueSize, mEvictedCount, mHeapDeltaKb, mIsolateStartCount);
+        }
+    }
+
+    public PushyLoadHarness(JvmContext context) {
+        mContext = context;
+
+        // PendingResult.finish() reports to the activity manager
+        installActivityManager();
+    }
+
+    private static void installActivityManager() {
+        // No system server on a plain JVM: answer every IActivityManager call with a default value
+        Object activityManager = Proxy.newProxyInstance(PushyLoadHarness.class.getClassLoader(), new Class[]{IActivityManager.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Class<?> type = method.getReturnType();
+
+                if (type == boolean.class) {
+                    return false;
+                }
+
+                if (type.isPrimitive() && type != void.class) {
+                    return Array.get(Array.newInstance(type, 1), 0);
+                }
+
+                return null;
+            }
+        });
+
+        try {
+            // Pre-fill ActivityManager.getService() (otherwise it binds to the service manager)
+            Field singletonField = ActivityManager.class.getDeclaredField("IActivityManagerSingleton");
+            singletonField.setAccessible(true);
+
+            Field instanceField = Singleton.class.getDeclaredField("mInstance");
+            instanceField.setAccessible(true);
+            instanceField.set(singletonField.get(null), activityManager);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new AssertionError("Failed to install activity manager", e);
+        }
+    }
+
+    public void installBackgroundIsolate(final long coldStartMs) {
+        // Callback handles the Dart app registered via setNotificationListener()
+        FlutterCallbackInformation.register(ISOLATE_CALLBACK_ID, "_isolate");
+        PushyFlutterBackgroundExecutor.persistCallbackHandleIds(mContext, ISOLATE_CALLBACK_ID, NOTIFICATION_HANDLER_CALLBACK_ID);
+
+        // Background engines talk to a fake isolate that acknowledges every notification
+        DartExecutor.setFakeDart(new DartExecutor.FakeDart() {
+            @Override
+            public BinaryMessenger createMessenger() {
+                FakeBinaryMessenger messenger = new FakeBinaryMessenger();
+
+                messenger.setDartHandler(new FakeBinaryMessenger.DartHandler() {
+                    @Override
+                    public Object onMethodCall(String channel, MethodCall call) {
+                        // Notification handler invoked with [handle, payload(s), sequences]
+                        List<?> args = call.arguments();
+                        onHandled(args.get(1));
+                        return true;
+                    }
+                });
+
+                mIsolateMessenger = messenger;
+                return messenger;
+            }
+
+            @Override
+            public void run(DartExecutor executor, String entrypoint, List<String> args) {
+                // Isolate boots, then reports its notification callback ready
+                final FakeBinaryMessenger messenger = mIsolateMessenger;
+                mIsolateStartCount++;
+
+                mMainHandler.postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        messenger.invokeMethod(PushyChannels.BACKGROUND_CHANNEL, "notificationCallbackReady", null, null);
+                    }
+                }, coldStartMs);
+            }
+        });
+    }
+
+    public int getIsolateStartCount() {
+        // Background isolates booted so far
+        return mIsolateStartCount;
+    }
+
+    public void startBackgroundIsolate() {
+        // Warm isolate ahead of the burst
+        PushyFlutterBackgroundExecutor.getSingletonInstance().startBackgroundIsolate(mContext);
+
+        await(new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                return PushyFlutterBackgroundExecutor.isRunning();
+            }
+        }, SETTLE_TIMEOUT_MS);
+    }
+
+    public void onHandled(Object payload) {
+        // Batched delivery?
+        if (payload instanceof List) {
+            for (Object item : (List<?>) payload) {
+                onHandled(item);
+            }
+            return;
+        }
+
+        // Handler invocation time
+        long now = System.nanoTime();
+        Integer id = getLoadId(payload);
+
+        // Not one of ours
+        if (id == null) {
+            return;
+        }
+
+        // Count redeliveries
+        if (mHandledAt.putIfAbsent(id, now) != null) {
+            mDuplicateCount.incrementAndGet();
+        }
+    }
+
+    public Report run(String path) throws Exception {
+        // Notifications to send & spacing between them
+        final int count = Math.max(1, RATE_PER_MINUTE * SECONDS / 60);
+        final long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, RATE_PER_MINUTE);
+        final String padding = new String(new char[PAYLOAD_BYTES]).replace('\0', 'x');
+
+        // Baseline heap usage
+        long heapBefore = getUsedHeap();
+
+        final Report report = new Report();
+        report.mPath = path;
+        report.mSent = count;
+
+        // Sender paces broadcasts the way the system delivers them (on the main thread)
+        final Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+
+                for (int i = 0; i < count; i++) {
+                    // Wait for this notification's slot
+                    long due = start + i * intervalNanos;
+
+                    while (System.nanoTime() < due) {
+                        Thread.yield();
+                    }
+
+                    send(i, padding);
+                }
+            }
+        }, "PushyLoadSender");
+
+        sender.start();
+
+        // Pump the main thread until everything was handled (sampling queue growth on the way)
+        boolean settled = Looper.getMainLooper().runUntil(new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                sample(report);
+                return !sender.isAlive() && mHandledAt.size() >= count && isJournalEmpty();
+            }
+        }, SECONDS * 1000L + SETTLE_TIMEOUT_MS);
+
+        sender.join();
+
+        // Latency from broadcast to handler invocation
+        List<Double> latencies = new ArrayList<>();
+
+        for (Map.Entry<Integer, Long> entry : mHandledAt.entrySet()) {
+            Long sentAt = mSentAt.get(entry.getKey());
+
+            if (sentAt != null) {
+                latencies.add((entry.getValue() - sentAt) / 1e6);
+            }
+        }
+
+        Collections.sort(latencies);
+
+        report.mHandled = mHandledAt.size();
+        report.mDropped = count - report.mHandled;
+        report.mDuplicates = mDuplicateCount.get();
+        report.mP50LatencyMs = getPercentile(latencies, 0.50);
+        report.mP99LatencyMs = getPercentile(latencies, 0.99);
+        report.mMaxLatencyMs = latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1);
+        report.mEvictedCount = ((Number) PushyPersistence.getPendingNotificationJournal(mContext).getStats().get("evictedCount")).longValue();
+        report.mHeapDeltaKb = (getUsedHeap() - heapBefore) / 1024;
+        report.mIsolateStartCount = mIsolateStartCount;
+
+        // Timed out? Report shows what's missing
+        if (!settled) {
+            System.out.println("Load run did not settle within timeout");
+        }
+
+        System.out.println(report);
+        return report;
+    }
+
+    private void send(final int id, String padding) {
+        // Synthetic Pushy notification intent
+        final Intent intent = new Intent("me.pushy.sdk.flutter.NOTIFICATION");
+        intent.putExtra(LOAD_ID, id);
+        intent.putExtra("message", padding);
+
+        // Broadcast time
+        mSentAt.put(id, System.nanoTime());
+
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Dynamically registered receiver (goAsync() needs a pending result)
+                mReceiver.setPendingResult(new BroadcastReceiver.PendingResult(0, null, null, BroadcastReceiver.PendingResult.TYPE_UNREGISTERED, false, false, false, null, 0, 0, 0, null));
+                mReceiver.onReceive(mContext, intent);
+            }
+        });
+    }
+
+    private void sample(Report report) {
+        // Main thread backlog
+        report.mMaxLooperQueueSize = Math.max(report.mMaxLooperQueueSize, Looper.getMainLooper().getQueueSize());
+
+        try {
+            // Journal growth
+            int journalCount = ((Number) PushyPersistence.getPendingNotificationJournal(mContext).getStats().get("count")).intValue();
+            report.mMaxJournalCount = Math.max(report.mMaxJournalCount, journalCount);
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private boolean isJournalEmpty() {
+        try {
+            return PushyPersistence.getPendingNotificationJournal(mContext).isEmpty();
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Integer getLoadId(Object payload) {
+        // Native map
+        if (payload instanceof Map) {
+            Object id = ((Map<?, ?>) payload).get(LOAD_ID);
+            return id instanceof Number ? ((Number) id).intValue() : null;
+        }
+
+        // Legacy stringified JSON
+        if (payload instanceof String) {
+            try {
+                JSONObject json = new JSONObject((String) payload);
+                return json.has(LOAD_ID) ? json.getInt(LOAD_ID) : null;
+            }
+            catch (JSONException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private static double getPercentile(List<Double> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(percentile * sorted.size()) - 1));
+    }
+
+    private static long getUsedHeap() {
+        // Settle garbage first (best effort)
+        System.gc();
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void await(BooleanSupplier condition, long timeoutMs) {
+        if (!Looper.getMainLooper().runUntil(condition, timeoutMs)) {
+            throw new AssertionError("Timed out after " + timeoutMs + "ms");
+        }
+    }
+}
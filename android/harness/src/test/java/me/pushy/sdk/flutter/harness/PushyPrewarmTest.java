@@ -0,0 +1,101 @@
+package me.pushy.sdk.flutter.harness;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.FlutterEngineGroup;
+import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import me.pushy.sdk.flutter.PushyPlugin;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+import me.pushy.sdk.flutter.util.PushyFlutterBackgroundExecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+// Pre-warming creates the background engine, whose plugin registration attaches PushyPlugin (which pre-warms again)
+public class PushyPrewarmTest {
+    private JvmContext mContext;
+    private PushyLoadHarness mHarness;
+    private int mAttachDepth;
+    private int mAttachCount;
+
+    @BeforeClass
+    public static void setUpClass() {
+        // Test thread is the main thread
+        Looper.prepareMainLooper();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        mContext = new JvmContext();
+        JvmSingletons.reset(PushyFlutterBackgroundExecutor.class);
+
+        mHarness = new PushyLoadHarness(mContext);
+        mHarness.installBackgroundIsolate(0);
+
+        // Pre-warm on attach, start right away
+        PushyFlutterBackgroundExecutor.setEngineOptions(mContext, false, true);
+
+        // Every engine attaches PushyPlugin from its constructor, like GeneratedPluginRegistrant
+        FlutterEngine.setPluginRegistrant(new FlutterEngine.PluginRegistrant() {
+            @Override
+            public void registerWith(FlutterEngine engine) {
+                // Attaching must not create another engine before this one is assigned
+                if (mAttachDepth > 0) {
+                    fail("Plugin attach re-entered engine creation");
+                }
+
+                mAttachDepth++;
+                mAttachCount++;
+
+                try {
+                    new PushyPlugin().onAttachedToEngine(new FlutterPlugin.FlutterPluginBinding(mContext, engine.getDartExecutor()));
+                }
+                finally {
+                    mAttachDepth--;
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        FlutterEngine.setPluginRegistrant(null);
+        PushyFlutterBackgroundExecutor.setEngineGroup(null);
+    }
+
+    @Test
+    public void prewarmStartsOneStandaloneEngine() {
+        int liveCount = FlutterEngine.getLiveCount();
+
+        PushyFlutterBackgroundExecutor.getSingletonInstance().prewarmBackgroundIsolate(mContext);
+        Looper.getMainLooper().idle();
+
+        // One engine, attached once, isolate started once
+        assertEquals(liveCount + 1, FlutterEngine.getLiveCount());
+        assertEquals(1, mAttachCount);
+        assertEquals(1, mHarness.getIsolateStartCount());
+    }
+
+    @Test
+    public void prewarmSpawnsOneEngineFromGroup() {
+        PushyFlutterBackgroundExecutor.setEngineOptions(mContext, true, true);
+        PushyFlutterBackgroundExecutor.setEngineGroup(new FlutterEngineGroup(mContext));
+        int liveCount = FlutterEngine.getLiveCount();
+
+        PushyFlutterBackgroundExecutor.getSingletonInstance().prewarmBackgroundIsolate(mContext);
+        Looper.getMainLooper().idle();
+
+        // One spawned engine, attached once, isolate started once
+        assertEquals(liveCount + 1, FlutterEngine.getLiveCount());
+        assertEquals(1, mAttachCount);
+        assertEquals(1, mHarness.getIsolateStartCount());
+    }
+}
@@ -0,0 +1,447 @@
+package me.pushy.sdk.flutter.util;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import me.pushy.sdk.flutter.harness.JvmSingletons;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushyNotificationJournalTest {
+    private static final String FILE_NAME = "pushy_pending_notifications.journal";
+    private static final int HEADER_SIZE = 40;
+
+    // Large enough that ~70 drained records cross the 64 KB compaction threshold
+    private static final int LARGE_PADDING = 1024;
+
+    private JvmContext mContext;
+    private PushyNotificationJournal mJournal;
+
+    @Before
+    public void setUp() throws IOException {
+        // Fresh files directory & journal instance per test
+        mContext = new JvmContext();
+        JvmSingletons.reset(PushyNotificationJournal.class);
+        mJournal = PushyNotificationJournal.getInstance(mContext);
+    }
+
+    @Test
+    public void drainReturnsRecordsInOrderAndTruncates() throws Exception {
+        append(1, 2, 3);
+
+        assertEquals(Arrays.asList(1, 2, 3), drain());
+        assertTrue(mJournal.isEmpty());
+        assertEquals(HEADER_SIZE, getFile().length());
+    }
+
+    @Test
+    public void readKeepsRecords() throws Exception {
+        append(1, 2);
+
+        assertEquals(Arrays.asList(1, 2), read());
+        assertEquals(Arrays.asList(1, 2), read());
+        assertFalse(mJournal.isEmpty());
+    }
+
+    @Test
+    public void higherPriorityIsReadFirst() throws Exception {
+        mJournal.append(notification(1, 0), 0, 0);
+        mJournal.append(notification(2, 0), 5, 0);
+        mJournal.append(notification(3, 0), 0, 0);
+        mJournal.append(notification(4, 0), 5, 0);
+
+        assertEquals(Arrays.asList(2, 4, 1, 3), drain());
+    }
+
+    @Test
+    public void pendingRecordsAreSkippedUntilAcknowledged() throws Exception {
+        append(1, 2, 3);
+
+        // Hand out the first two (in flight)
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(2);
+        assertEquals(Arrays.asList(1, 2), getIds(records));
+
+        // Neither read() nor drain() sees them
+        assertEquals(Collections.singletonList(3), read());
+        assertEquals(Collections.singletonList(3), drain());
+        assertEquals(2, mJournal.getStats().get("count"));
+
+        // Acknowledged ones are released
+        for (PushyNotificationJournal.Record record : records) {
+            mJournal.acknowledge(record.mSequence);
+        }
+
+        assertTrue(mJournal.isEmpty());
+        assertEquals(HEADER_SIZE, getFile().length());
+    }
+
+    @Test
+    public void resetPendingHandsOutRecordsAgain() throws Exception {
+        append(1, 2, 3);
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(3);
+
+        // Only the timed out delivery is released
+        mJournal.resetPending(Collections.singletonList(records.get(1).mSequence));
+        assertEquals(Collections.singletonList(2), getIds(mJournal.readPending(10)));
+
+        // Restarted isolate gets everything again
+        mJournal.resetPending();
+        assertEquals(Arrays.asList(1, 2, 3), getIds(mJournal.readPending(10)));
+    }
+
+    @Test
+    public void outOfOrderAcknowledgementSurvivesReopen() throws Exception {
+        append(1, 2, 3);
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(3);
+
+        mJournal.acknowledge(records.get(1).mSequence);
+
+        // Process restart
+        reopen();
+
+        assertEquals(Arrays.asList(1, 3), getIds(mJournal.readPending(10)));
+    }
+
+    @Test
+    public void sequenceNumbersSurviveReopen() throws Exception {
+        append(1, 2, 3);
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(3);
+
+        // Process restart while records are in flight
+        reopen();
+
+        // Same record under the same sequence number (a late acknowledgement releases the right one)
+        mJournal.acknowledge(records.get(2).mSequence);
+        assertEquals(Arrays.asList(1, 2), read());
+
+        // New records never reuse a sequence number
+        append(4);
+        List<PushyNotificationJournal.Record> next = mJournal.readPending(10);
+        assertTrue(next.get(2).mSequence > records.get(2).mSequence);
+    }
+
+    @Test
+    public void batchAcknowledgementReleasesAll() throws Exception {
+        append(1, 2, 3);
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(3);
+
+        mJournal.acknowledge(Arrays.asList(records.get(0).mSequence, records.get(2).mSequence, -1L));
+
+        reopen();
+
+        assertEquals(Collections.singletonList(2), getIds(mJournal.readPending(10)));
+    }
+
+    @Test
+    public void unacknowledgedRecordsSurviveReopen() throws Exception {
+        append(1, 2);
+        mJournal.readPending(2);
+
+        reopen();
+
+        assertEquals(Arrays.asList(1, 2), read());
+    }
+
+    @Test
+    public void inFlightRecordSurvivesCompaction() throws Exception {
+        // Large records ahead of a high priority one
+        for (int i = 1; i <= 100; i++) {
+            mJournal.append(notification(i, LARGE_PADDING), 0, 0);
+        }
+
+        mJournal.append(notification(-1, 0), 1, 0);
+
+        // Hand it to the isolate, then drain everything else (schedules compaction)
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(1);
+        assertEquals(Collections.singletonList(-1), getIds(records));
+        assertEquals(100, drain().size());
+
+        awaitCompaction();
+
+        // Moved record is still readable once handed out again
+        mJournal.resetPending();
+        List<PushyNotificationJournal.Record> redelivered = mJournal.readPending(10);
+        assertEquals(Collections.singletonList(-1), getIds(redelivered));
+        assertEquals(records.get(0).mSequence, redelivered.get(0).mSequence);
+
+        // Acknowledging by sequence still finds it
+        mJournal.acknowledge(records.get(0).mSequence);
+        assertTrue(mJournal.isEmpty());
+
+        reopen();
+        assertTrue(mJournal.isEmpty());
+    }
+
+    @Test
+    public void acknowledgementAfterCompactionReleasesMovedRecord() throws Exception {
+        for (int i = 1; i <= 100; i++) {
+            mJournal.append(notification(i, LARGE_PADDING), 0, 0);
+        }
+
+        mJournal.append(notification(-1, 0), 1, 0);
+
+        // In flight: the high priority record plus the first large one
+        List<PushyNotificationJournal.Record> records = mJournal.readPending(2);
+        assertEquals(Arrays.asList(-1, 1), getIds(records));
+
+        // Acknowledge the large one, then drain the rest (only the high priority record remains)
+        mJournal.acknowledge(records.get(1).mSequence);
+        assertEquals(99, drain().size());
+
+        awaitCompaction();
+
+        // Appends after compaction land behind the moved record
+        append(1000);
+
+        mJournal.acknowledge(records.get(0).mSequence);
+        assertEquals(Collections.singletonList(1000), read());
+
+        reopen();
+        assertEquals(Collections.singletonList(1000), drain());
+    }
+
+    @Test
+    public void concurrentAppendsAndDrainsLoseNothing() throws Exception {
+        final int count = 2000;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Producer (receiver worker thread)
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        mJournal.append(notification(i, 200), 0, 0);
+                    }
+                }
+                catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+
+        producer.start();
+
+        // Consumer (foreground delivery), compaction runs in between
+        List<Integer> ids = new ArrayList<>();
+
+        while (producer.isAlive() || !mJournal.isEmpty()) {
+            ids.addAll(drain());
+        }
+
+        producer.join();
+
+        assertNull(failure.get());
+        assertEquals(getRange(count), ids);
+    }
+
+    @Test
+    public void concurrentAppendsAndAcknowledgementsLoseNothing() throws Exception {
+        final int count = 1000;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        mJournal.append(notification(i, 200), 0, 0);
+                    }
+                }
+                catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        });
+
+        producer.start();
+
+        // Consumer (background isolate with a delivery window of 10), compaction runs in between
+        List<Integer> ids = new ArrayList<>();
+
+        while (producer.isAlive() || !mJournal.isEmpty()) {
+            List<PushyNotificationJournal.Record> records = mJournal.readPending(10);
+            ids.addAll(getIds(records));
+
+            for (PushyNotificationJournal.Record record : records) {
+                mJournal.acknowledge(record.mSequence);
+            }
+        }
+
+        producer.join();
+
+        assertNull(failure.get());
+        assertEquals(getRange(count), ids);
+
+        reopen();
+        assertTrue(mJournal.isEmpty());
+    }
+
+    @Test
+    public void dropOldestEvictsHead() throws Exception {
+        mJournal.setLimits(2, 0, PushyNotificationJournal.POLICY_DROP_OLDEST, 0);
+
+        assertTrue(mJournal.append(notification(1, 0), 0, 0));
+        assertTrue(mJournal.append(notification(2, 0), 0, 0));
+        assertTrue(mJournal.append(notification(3, 0), 0, 0));
+
+        assertEquals(Arrays.asList(2, 3), drain());
+        assertEquals(1L, mJournal.getStats().get("evictedCount"));
+    }
+
+    @Test
+    public void dropNewestRejectsAppend() throws Exception {
+        mJournal.setLimits(2, 0, PushyNotificationJournal.POLICY_DROP_NEWEST, 0);
+
+        append(1, 2);
+        assertFalse(mJournal.append(notification(3, 0), 0, 0));
+
+        assertEquals(Arrays.asList(1, 2), drain());
+        assertEquals(1L, mJournal.getStats().get("evictedCount"));
+    }
+
+    @Test
+    public void dropLowestPriorityKeepsHighPriority() throws Exception {
+        mJournal.setLimits(2, 0, PushyNotificationJournal.POLICY_DROP_LOWEST_PRIORITY, 0);
+
+        mJournal.append(notification(1, 0), 5, 0);
+        mJournal.append(notification(2, 0), 0, 0);
+        mJournal.append(notification(3, 0), 5, 0);
+
+        assertEquals(Arrays.asList(1, 3), drain());
+    }
+
+    @Test
+    public void expiredRecordsAreDiscarded() throws Exception {
+        mJournal.append(notification(1, 0), 0, 1);
+        mJournal.append(notification(2, 0), 0, 0);
+
+        Thread.sleep(10);
+
+        assertEquals(Collections.singletonList(2), drain());
+        assertEquals(1L, mJournal.getStats().get("expiredCount"));
+    }
+
+    @Test
+    public void tornTailIsTruncatedOnReopen() throws Exception {
+        append(1, 2);
+        long length = getFile().length();
+
+        // Crash mid-append leaves a partial record behind
+        RandomAccessFile file = new RandomAccessFile(getFile(), "rw");
+
+        try {
+            file.seek(length);
+            file.write(new byte[]{0, 0, 0, 42, 1, 2, 3});
+        }
+        finally {
+            file.close();
+        }
+
+        reopen();
+
+        assertEquals(Arrays.asList(1, 2), read());
+        assertEquals(length, getFile().length());
+    }
+
+    private void append(int... ids) throws IOException, JSONException {
+        for (int id : ids) {
+            assertTrue(mJournal.append(notification(id, 0), 0, 0));
+        }
+    }
+
+    private List<Integer> read() throws IOException {
+        final List<Integer> ids = new ArrayList<>();
+
+        mJournal.read(new PushyNotificationJournal.Reader() {
+            @Override
+            public void onNotification(JSONObject notification) {
+                ids.add(notification.optInt("id"));
+            }
+        });
+
+        return ids;
+    }
+
+    private List<Integer> drain() throws IOException {
+        final List<Integer> ids = new ArrayList<>();
+
+        mJournal.drain(new PushyNotificationJournal.Reader() {
+            @Override
+            public void onNotification(JSONObject notification) {
+                ids.add(notification.optInt("id"));
+            }
+        });
+
+        return ids;
+    }
+
+    private void reopen() {
+        // Simulates a process restart (index rebuilt from the file)
+        JvmSingletons.reset(PushyNotificationJournal.class);
+        mJournal = PushyNotificationJournal.getInstance(mContext);
+    }
+
+    private void awaitCompaction() throws Exception {
+        // Compaction runs on its own thread, the journal shrinks to the live records once it's done
+        long deadline = System.currentTimeMillis() + 10 * 1000;
+
+        while (getFile().length() > LARGE_PADDING) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Journal was not compacted: " + getFile().length() + " bytes");
+            }
+
+            Thread.sleep(5);
+        }
+    }
+
+    private File getFile() {
+        return new File(mContext.getFilesDir(), FILE_NAME);
+    }
+
+    private static JSONObject notification(int id, int padding) throws JSONException {
+        JSONObject notification = new JSONObject();
+        notification.put("id", id);
+
+        if (padding > 0) {
+            notification.put("padding", new String(new char[padding]).replace('\0', 'x'));
+        }
+
+        return notification;
+    }
+
+    private static List<Integer> getIds(List<PushyNotificationJournal.Record> records) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (PushyNotificationJournal.Record record : records) {
+            ids.add(record.mNotification.optInt("id"));
+        }
+
+        return ids;
+    }
+
+    private static List<Integer> getRange(int count) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            ids.add(i);
+        }
+
+        return ids;
+    }
+}
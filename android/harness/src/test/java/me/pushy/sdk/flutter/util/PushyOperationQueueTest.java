@@ -0,0 +1,380 @@
+package me.pushy.sdk.flutter.util;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+import me.pushy.sdk.flutter.harness.JvmSingletons;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushyOperationQueueTest {
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    private JvmContext mContext;
+    private PushyOperationQueue mQueue;
+    private final List<FakeRunner> mRunners = new ArrayList<>();
+
+    @BeforeClass
+    public static void setUpClass() {
+        // Test thread is the main thread
+        Looper.prepareMainLooper();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        // Fresh settings & queue per test
+        mContext = new JvmContext();
+        JvmSingletons.reset(PushySettingsStore.class, PushyOperationQueue.class);
+
+        PushyPersistence.setOfflineQueueEnabled(true, mContext);
+        mQueue = PushyOperationQueue.getInstance(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        // Stop leftover retries before the next test
+        for (FakeRunner runner : mRunners) {
+            mQueue.detach(runner);
+        }
+
+        idle();
+    }
+
+    @Test
+    public void offerOnlyQueuesOfflineFailuresWhenEnabled() {
+        // Online failures are the caller's to handle
+        assertFalse(mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList()));
+
+        // Offline with the queue disabled
+        mContext.setOnline(false);
+        PushyPersistence.setOfflineQueueEnabled(false, mContext);
+        assertFalse(mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList()));
+
+        // Offline with the queue enabled
+        PushyPersistence.setOfflineQueueEnabled(true, mContext);
+        assertTrue(mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void queuedOperationRunsWhenConnectivityReturns() {
+        FakeRunner runner = attach();
+        RecordingSink sink = listen();
+
+        mContext.setOnline(false);
+        idle();
+
+        assertTrue(mQueue.offer(PushyOperationQueue.TYPE_SUBSCRIBE, Collections.singletonList("news")));
+        idle();
+
+        // Waiting for connectivity
+        assertTrue(runner.mCalls.isEmpty());
+        assertEquals(1, mContext.getReceiverCount());
+        assertEquals(1, mQueue.getStats().get("pending"));
+        assertNotNull(getPersistedQueue());
+
+        // Back online: retried right away, not after the backoff
+        mContext.setOnline(true);
+        idle();
+
+        assertEquals(Collections.singletonList("subscribe[news]"), runner.mCalls);
+        assertEquals(0, mQueue.getStats().get("pending"));
+        assertEquals(1L, mQueue.getStats().get("succeeded"));
+        assertEquals(0, mContext.getReceiverCount());
+        assertNull(getPersistedQueue());
+
+        assertEquals(Arrays.asList("queued", "retrying", "succeeded"), sink.mStatuses);
+    }
+
+    @Test
+    public void replacingOperationsAreCollapsed() {
+        FakeRunner runner = attach();
+        RecordingSink sink = listen();
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_SUBSCRIBE, Arrays.asList("a", "b"));
+        mQueue.offer(PushyOperationQueue.TYPE_UNSUBSCRIBE, Collections.singletonList("a"));
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        mQueue.offer(PushyOperationQueue.TYPE_SET_DEVICE_CREDENTIALS, Arrays.asList("token", "authKey"));
+        idle();
+
+        // Latest change per topic & latest credentials change win
+        assertEquals(3, mQueue.getStats().get("pending"));
+        assertEquals(2, sink.count("replaced"));
+
+        mContext.setOnline(true);
+        idle();
+
+        assertEquals(Arrays.asList("subscribe[b]", "unsubscribe[a]", "setDeviceCredentials[token, authKey]"), runner.mCalls);
+    }
+
+    @Test
+    public void detachingLastRunnerPausesRetries() {
+        FakeRunner runner = attach();
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+        assertEquals(1, mContext.getReceiverCount());
+
+        // Last engine goes away: no connectivity receiver, no retry timer
+        mQueue.detach(runner);
+        idle();
+        assertEquals(0, mContext.getReceiverCount());
+
+        mContext.setOnline(true);
+        Looper.getMainLooper().idleFor(HOUR_MS);
+
+        assertTrue(runner.mCalls.isEmpty());
+        assertEquals(1, mQueue.getStats().get("pending"));
+
+        // Next engine resumes the queue
+        FakeRunner next = attach();
+
+        assertEquals(Collections.singletonList("register[]"), next.mCalls);
+        assertTrue(runner.mCalls.isEmpty());
+        assertEquals(0, mQueue.getStats().get("pending"));
+    }
+
+    @Test
+    public void detachingMidRetryReleasesInFlightCalls() {
+        FakeRunner runner = attach();
+        runner.mHold = true;
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+
+        // Retry starts, then the engine detaches (its I/O executor cancels the call without a result)
+        mContext.setOnline(true);
+        idle();
+        assertEquals(1, runner.mCalls.size());
+
+        mQueue.detach(runner);
+        idle();
+
+        // Next engine retries instead of waiting for the cancelled call forever
+        FakeRunner next = attach();
+
+        assertEquals(Collections.singletonList("register[]"), next.mCalls);
+        assertEquals(0, mQueue.getStats().get("pending"));
+    }
+
+    @Test
+    public void remainingRunnerTakesOverWhenLatestDetaches() {
+        FakeRunner first = attach();
+        FakeRunner second = attach();
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+
+        // Latest attached engine detaches while offline
+        mQueue.detach(second);
+        idle();
+
+        // Still waiting for connectivity on behalf of the remaining engine
+        assertEquals(1, mContext.getReceiverCount());
+
+        mContext.setOnline(true);
+        idle();
+
+        assertEquals(Collections.singletonList("register[]"), first.mCalls);
+        assertTrue(second.mCalls.isEmpty());
+    }
+
+    @Test
+    public void reattachingSameRunnerDoesNotDuplicateRetries() {
+        FakeRunner runner = attach();
+        mQueue.attach(runner);
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+
+        // One detach is enough to stop it
+        mQueue.detach(runner);
+        idle();
+
+        assertEquals(0, mContext.getReceiverCount());
+    }
+
+    @Test
+    public void queueSurvivesProcessRestart() {
+        FakeRunner runner = attach();
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_SUBSCRIBE, Collections.singletonList("news"));
+        idle();
+
+        mQueue.detach(runner);
+        idle();
+
+        // New process (settings survive in SharedPreferences)
+        JvmSingletons.reset(PushyOperationQueue.class);
+        mQueue = PushyOperationQueue.getInstance(mContext);
+        assertEquals(1, mQueue.getStats().get("pending"));
+
+        // Engine attaches while online
+        mContext.setOnline(true);
+        FakeRunner next = attach();
+
+        assertEquals(Collections.singletonList("subscribe[news]"), next.mCalls);
+        assertNull(getPersistedQueue());
+    }
+
+    @Test
+    public void failingOperationBacksOffThenGivesUp() {
+        FakeRunner runner = attach();
+        runner.mError = "Internal server error";
+        RecordingSink sink = listen();
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+
+        // First attempt on reconnect, then backoff rounds
+        mContext.setOnline(true);
+        idle();
+        assertEquals(1, runner.mCalls.size());
+
+        Looper.getMainLooper().idleFor(HOUR_MS);
+
+        // Gave up after ten failures while online
+        assertEquals(10, runner.mCalls.size());
+        assertEquals(0, mQueue.getStats().get("pending"));
+        assertEquals(1L, mQueue.getStats().get("failed"));
+        assertEquals(1, sink.count("failed"));
+        assertEquals(0, mContext.getReceiverCount());
+    }
+
+    @Test
+    public void failuresWhileOfflineDoNotCountTowardsGivingUp() {
+        FakeRunner runner = attach();
+        runner.mError = "Unable to resolve host";
+
+        mContext.setOnline(false);
+        idle();
+
+        mQueue.offer(PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList());
+        idle();
+
+        // Each reconnect retries, but connectivity drops again before the result arrives
+        runner.mOnRun = new Runnable() {
+            @Override
+            public void run() {
+                mContext.setOnline(false);
+            }
+        };
+
+        for (int i = 0; i < 15; i++) {
+            mContext.setOnline(true);
+            idle();
+        }
+
+        assertEquals(15, runner.mCalls.size());
+        assertEquals(1, mQueue.getStats().get("pending"));
+        assertEquals(0L, mQueue.getStats().get("failed"));
+    }
+
+    private FakeRunner attach() {
+        FakeRunner runner = new FakeRunner();
+        mRunners.add(runner);
+        mQueue.attach(runner);
+        idle();
+        return runner;
+    }
+
+    private RecordingSink listen() {
+        RecordingSink sink = new RecordingSink();
+        mQueue.createStreamHandler().onListen(null, sink);
+        return sink;
+    }
+
+    private String getPersistedQueue() {
+        return PushyPersistence.getSettings(mContext).getString(PushyPersistence.OPERATION_QUEUE, null);
+    }
+
+    private static void idle() {
+        Looper.getMainLooper().idle();
+    }
+
+    private static class FakeRunner implements PushyOperationQueue.Runner {
+        final List<String> mCalls = new ArrayList<>();
+        String mError;
+        Runnable mOnRun;
+        boolean mHold;
+
+        @Override
+        public void run(String type, List<String> args, PushyIOExecutor.Callback callback) {
+            mCalls.add(type + args);
+
+            if (mOnRun != null) {
+                mOnRun.run();
+            }
+
+            if (mHold) {
+                return;
+            }
+
+            if (mError != null) {
+                callback.onError(mError);
+            }
+            else {
+                callback.onSuccess(null);
+            }
+        }
+    }
+
+    private static class RecordingSink implements EventChannel.EventSink {
+        final List<String> mStatuses = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void success(Object event) {
+            mStatuses.add((String) ((Map<String, Object>) event).get("status"));
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void endOfStream() {
+        }
+
+        int count(String status) {
+            return Collections.frequency(mStatuses, status);
+        }
+    }
+}
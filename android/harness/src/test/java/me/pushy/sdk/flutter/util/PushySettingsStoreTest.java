@@ -0,0 +1,79 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import me.pushy.sdk.flutter.config.PushySharedPrefs;
+import me.pushy.sdk.flutter.harness.JvmSingletons;
+import me.pushy.sdk.flutter.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushySettingsStoreTest {
+    private static final String HOST_KEY = "hostAppSetting";
+
+    private JvmContext mContext;
+    private SharedPreferences mPreferences;
+    private PushySettingsStore mStore;
+
+    @Before
+    public void setUp() throws IOException {
+        // Fresh settings per test
+        mContext = new JvmContext();
+        JvmSingletons.reset(PushySettingsStore.class);
+
+        mPreferences = PreferenceManager.getDefaultSharedPreferences(mContext);
+        mStore = PushySettingsStore.getInstance(mContext);
+    }
+
+    @Test
+    public void commitWritesThrough() {
+        // Committed changes reach the underlying preferences before commit() returns
+        assertTrue(mStore.edit().putInt(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW, 4).commit());
+        assertEquals(4, mPreferences.getInt(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW, 0));
+
+        // Removals too
+        assertTrue(mStore.edit().remove(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW).commit());
+        assertFalse(mPreferences.contains(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW));
+    }
+
+    @Test
+    public void clearOnlyRemovesPluginKeys() {
+        mPreferences.edit().putString(HOST_KEY, "kept").commit();
+        mStore.edit().putBoolean(PushyPersistence.DEFERRED_START, true).commit();
+
+        mStore.edit().clear().commit();
+
+        // Host app settings survive
+        assertNull(mPreferences.getAll().get(PushyPersistence.DEFERRED_START));
+        assertEquals("kept", mPreferences.getString(HOST_KEY, null));
+    }
+
+    @Test
+    public void snapshotFollowsExternalWrites() {
+        mStore.edit().putInt(PushyPersistence.LARGE_PAYLOAD_THRESHOLD, 1024).apply();
+
+        // Written around the store
+        mPreferences.edit().putInt(PushyPersistence.LARGE_PAYLOAD_THRESHOLD, 2048).commit();
+        assertEquals(2048, mStore.getInt(PushyPersistence.LARGE_PAYLOAD_THRESHOLD, 0));
+
+        // Cleared around the store
+        mPreferences.edit().clear().commit();
+        assertFalse(mStore.contains(PushyPersistence.LARGE_PAYLOAD_THRESHOLD));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsForeignKeys() {
+        // Not a plugin setting
+        mStore.edit().putString(HOST_KEY, "value");
+    }
+}
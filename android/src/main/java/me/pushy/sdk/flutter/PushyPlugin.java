@@ -4,22 +4,20 @@ import android.app.Activity;
 import android.app.NotificationManager;
 import android.content.Context;
 import android.content.Intent;
-import android.media.RingtoneManager;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.provider.Settings;
 import android.os.PowerManager;
 
 import androidx.core.app.NotificationCompat;
 
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.Executors;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import androidx.annotation.NonNull;
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
@@ -33,27 +31,94 @@ import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry;
 
 import me.pushy.sdk.flutter.config.PushyChannels;
-import me.pushy.sdk.config.PushyNotificationChannel;
 import me.pushy.sdk.Pushy;
 import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.util.PushyBlobStore;
+import me.pushy.sdk.flutter.util.PushyClickBuffer;
 import me.pushy.sdk.flutter.util.PushyFlutterBackgroundExecutor;
+import me.pushy.sdk.flutter.util.PushyIOExecutor;
+import me.pushy.sdk.flutter.util.PushyMainThreadDispatcher;
 import me.pushy.sdk.flutter.util.PushyNotification;
+import me.pushy.sdk.flutter.util.PushyNotificationBatcher;
+import me.pushy.sdk.flutter.util.PushyNotificationCollapser;
+import me.pushy.sdk.flutter.util.PushyNotificationJournal;
+import me.pushy.sdk.flutter.util.PushyOperationQueue;
+import me.pushy.sdk.flutter.util.PushyPayloads;
+import me.pushy.sdk.flutter.util.PushyPluginMetrics;
+import me.pushy.sdk.flutter.util.PushyRegistrationState;
+import me.pushy.sdk.flutter.util.PushyStartupTrace;
+import me.pushy.sdk.flutter.util.PushyTopicManager;
 import me.pushy.sdk.model.PushyDeviceCredentials;
 import me.pushy.sdk.flutter.config.PushyIntentExtras;
-import me.pushy.sdk.util.PushyStringUtils;
-import me.pushy.sdk.util.exceptions.PushyException;
 import me.pushy.sdk.flutter.util.PushyPersistence;
 
 public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHandler, PluginRegistry.NewIntentListener, EventChannel.StreamHandler {
-    static Context mContext;
-    static Activity mActivity;
-    static EventChannel.EventSink mNotificationListener;
+    // Attached engines (add-to-app & background isolate engines each get their own plugin instance)
+    private static final List<PushyPlugin> mPlugins = new CopyOnWriteArrayList<>();
+
+    private volatile Context mContext;
+    private volatile Activity mActivity;
+    private volatile EventChannel.EventSink mNotificationListener;
+
+    private PushyIOExecutor mIOExecutor;
+    private PushyTopicManager mTopicManager;
+    private PushyNotificationCollapser mNotificationCollapser;
+    private PushyOperationQueue mOperationQueue;
+    private final PushyClickBuffer mClickBuffer = new PushyClickBuffer();
+
+    // Per-engine registration state & operation queue sinks (cancelled on detach, the shared singletons outlive this engine)
+    private EventChannel.StreamHandler mRegistrationStreamHandler;
+    private EventChannel.StreamHandler mOperationStreamHandler;
+    private final PushyPluginMetrics mMetrics = new PushyPluginMetrics();
+
+    // Retries queued offline operations through this engine
+    private final PushyOperationQueue.Runner mOperationRunner = new PushyOperationQueue.Runner() {
+        @Override
+        public void run(String type, List<String> args, PushyIOExecutor.Callback callback) {
+            switch (type) {
+                case PushyOperationQueue.TYPE_REGISTER:
+                    performRegister(callback);
+                    break;
+
+                case PushyOperationQueue.TYPE_SET_DEVICE_CREDENTIALS:
+                    performSetDeviceCredentials(new PushyDeviceCredentials(args.get(0), args.get(1)), callback);
+                    break;
+
+                case PushyOperationQueue.TYPE_SUBSCRIBE:
+                    mTopicManager.subscribe(args.toArray(new String[0]), callback);
+                    break;
+
+                case PushyOperationQueue.TYPE_UNSUBSCRIBE:
+                    mTopicManager.unsubscribe(args.toArray(new String[0]), callback);
+                    break;
+            }
+        }
+    };
 
     @Override
     public void onAttachedToEngine(@NonNull FlutterPluginBinding binding) {
+        // Time plugin attach as a startup phase
+        PushyStartupTrace trace = PushyStartupTrace.getInstance();
+        trace.begin("attach");
+
         // Store context for later
         mContext = binding.getApplicationContext();
 
+        // Receive notification events alongside other attached engines
+        mPlugins.add(this);
+
+        // Shared, bounded executor for blocking network I/O
+        mIOExecutor = new PushyIOExecutor();
+
+        // Coalesces topic changes into batched round trips (shared by all engines)
+        mTopicManager = PushyTopicManager.getInstance(mContext);
+
+        // Groups local notification bursts into summaries (when enabled, shared by all engines)
+        mNotificationCollapser = PushyNotificationCollapser.getInstance(mContext);
+
+        // Retries network-bound calls that failed while offline (when enabled)
+        mOperationQueue = PushyOperationQueue.getInstance(mContext);
+
         // Register a method channel that the Flutter app may invoke
         MethodChannel channel = new MethodChannel(binding.getBinaryMessenger(), PushyChannels.METHOD_CHANNEL);
 
@@ -62,6 +127,47 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
 
         // Register an event channel that the Flutter app may listen on
         new EventChannel(binding.getBinaryMessenger(), PushyChannels.EVENT_CHANNEL).setStreamHandler(this);
+
+        // Push registration state changes to the Flutter app
+        mRegistrationStreamHandler = PushyRegistrationState.getInstance().createStreamHandler();
+        new EventChannel(binding.getBinaryMessenger(), PushyChannels.REGISTRATION_CHANNEL).setStreamHandler(mRegistrationStreamHandler);
+
+        // Push offline operation queue progress to the Flutter app
+        mOperationStreamHandler = mOperationQueue.createStreamHandler();
+        new EventChannel(binding.getBinaryMessenger(), PushyChannels.OPERATION_CHANNEL).setStreamHandler(mOperationStreamHandler);
+
+        // Serve large payload bodies to this engine (foreground or background isolate)
+        PushyBlobStore.getInstance(mContext).attach(binding.getBinaryMessenger());
+
+        // Deferred start mode (connection & background engine preparation wait for first frame / idle)
+        boolean deferred = PushyPersistence.isDeferredStart(mContext);
+
+        // Fill registration state cache off the platform thread
+        trace.runDeferred("loadRegistrationState", deferred, new Runnable() {
+            @Override
+            public void run() {
+                PushyRegistrationState.getInstance().load(mContext, mIOExecutor);
+            }
+        });
+
+        // Resume operations queued by a previous process
+        trace.runDeferred("resumeOperationQueue", deferred, new Runnable() {
+            @Override
+            public void run() {
+                mOperationQueue.attach(mOperationRunner);
+            }
+        });
+
+        // Start background isolate ahead of the first notification (if enabled)
+        trace.runDeferred("prewarmBackgroundIsolate", deferred, new Runnable() {
+            @Override
+            public void run() {
+                PushyFlutterBackgroundExecutor.getSingletonInstance().prewarmBackgroundIsolate(mContext);
+            }
+        });
+
+        // Attach done
+        trace.end("attach");
     }
 
     @Override
@@ -69,357 +175,520 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
         // Store reference to activity object
         mActivity = binding.getActivity();
 
+        // Capture launch notification click right away (replayed once the Flutter app listens)
+        mClickBuffer.capture(mActivity.getIntent());
+
         // Listen for new intents (notification clicked)
         binding.addOnNewIntentListener(this);
     }
 
     @Override
     public boolean onNewIntent(Intent intent) {
-        // Handle notification click
-        onNotificationClicked(mContext, intent);
+        // Handle notification click (delivered now or buffered until the Flutter app listens)
+        mClickBuffer.capture(intent);
 
         // Handled
         return true;
     }
 
-    void onNotificationClicked(Context context, Intent intent) {
-        // Not a clicked Pushy notification?
-        if (!intent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false)) {
-            return;
+    @Override
+    public void onMethodCall(MethodCall call, Result result) {
+        // Record invocation count & latency (including the main-thread result hop)
+        result = mMetrics.track(call.method, result);
+
+        // Dispatch by method name (hash-based switch rather than an if-chain)
+        switch (call.method) {
+            // Start the socket service
+            case "listen":
+                listen(result);
+                break;
+
+            // Register the device for notifications
+            case "register":
+                register(result);
+                break;
+
+            // Background notification listener
+            case "setNotificationListener":
+                setNotificationListener(call, result);
+                break;
+
+            // Check if device is registered
+            case "isRegistered":
+                isRegistered(result);
+                break;
+
+            // Display a system notification
+            case "notify":
+                notify(call, result);
+                break;
+
+            // Subscribe device to topic
+            case "subscribe":
+                subscribe(call, result);
+                break;
+
+            // Unsubscribe device from topic
+            case "unsubscribe":
+                unsubscribe(call, result);
+                break;
+
+            // FCM fallback delivery
+            case "toggleFCM":
+                toggleFCM(call, result);
+                break;
+
+            // Toggle foreground service support
+            case "toggleForegroundService":
+                toggleForegroundService(call, result);
+                break;
+
+            // Get FCM fallback delivery token
+            case "getFCMToken":
+                getFCMToken(result);
+                break;
+
+            // Pushy Enterprise support
+            case "setEnterpriseConfig":
+                setEnterpriseConfig(call, result);
+                break;
+
+            // Toggle notifications support
+            case "toggleNotifications":
+                toggleNotifications(call, result);
+                break;
+
+            // Custom icon support
+            case "setNotificationIcon":
+                setNotificationIcon(call, result);
+                break;
+
+            // Custom heartbeat interval support
+            case "setHeartbeatInterval":
+                setHeartbeatInterval(call, result);
+                break;
+
+            // Custom JobService interval support
+            case "setJobServiceInterval":
+                setJobServiceInterval(call, result);
+                break;
+
+            // Device credential retrieval support
+            case "getDeviceCredentials":
+                getDeviceCredentials(result);
+                break;
+
+            // Device credential assignment support
+            case "setDeviceCredentials":
+                setDeviceCredentials(call, result);
+                break;
+
+            // Check whether app whitelisted from battery optimizations
+            case "isIgnoringBatteryOptimizations":
+                isIgnoringBatteryOptimizations(result);
+                break;
+
+            // Launch battery optimizations activity
+            case "launchBatteryOptimizationsActivity":
+                launchBatteryOptimizationsActivity(result);
+                break;
+
+            // Set Pushy App ID support
+            case "setAppId":
+                setAppId(call, result);
+                break;
+
+            // Configure I/O executor concurrency & timeout
+            case "setIOExecutorConfig":
+                setIOExecutorConfig(call, result);
+                break;
+
+            // I/O executor queue depth & wait time stats
+            case "getIOExecutorStats":
+                getIOExecutorStats(result);
+                break;
+
+            // Background engine spawning & pre-warm options
+            case "setBackgroundEngineOptions":
+                setBackgroundEngineOptions(call, result);
+                break;
+
+            // Background engine idle shutdown
+            case "setBackgroundEngineIdleTimeout":
+                setBackgroundEngineIdleTimeout(call, result);
+                break;
+
+            // Background isolate acknowledgement window
+            case "setBackgroundDeliveryWindow":
+                setBackgroundDeliveryWindow(call, result);
+                break;
+
+            // Per-priority lane delivery latency
+            case "getPriorityLaneMetrics":
+                getPriorityLaneMetrics(result);
+                break;
+
+            // Background isolate cold start latency & RSS
+            case "getBackgroundIsolateStats":
+                getBackgroundIsolateStats(result);
+                break;
+
+            // Batched notification delivery
+            case "setNotificationBatching":
+                setNotificationBatching(call, result);
+                break;
+
+            // Stringified JSON payloads (compatibility)
+            case "toggleLegacyPayloadFormat":
+                toggleLegacyPayloadFormat(call, result);
+                break;
+
+            // Drop identical payloads delivered twice within the dedupe window
+            case "togglePayloadDeduplication":
+                togglePayloadDeduplication(call, result);
+                break;
+
+            // Burst collapsing for local notifications
+            case "setNotificationCollapsing":
+                setNotificationCollapsing(call, result);
+                break;
+
+            // Per-group collapsing counters
+            case "getNotificationGroupStats":
+                getNotificationGroupStats(result);
+                break;
+
+            // Pending notification queue capacity, eviction policy & TTL
+            case "setPendingQueueLimits":
+                setPendingQueueLimits(call, result);
+                break;
+
+            // Pending notification queue depth & eviction / expiry counters
+            case "getPendingQueueStats":
+                getPendingQueueStats(result);
+                break;
+
+            // Main thread dispatcher counters
+            case "getDispatcherStats":
+                getDispatcherStats(result);
+                break;
+
+            // Out-of-band delivery for large payloads
+            case "setLargePayloadThreshold":
+                setLargePayloadThreshold(call, result);
+                break;
+
+            // Out-of-band payload counters
+            case "getLargePayloadStats":
+                getLargePayloadStats(result);
+                break;
+
+            // Deferred start mode (applies from next launch)
+            case "setDeferredStart":
+                setDeferredStart(call, result);
+                break;
+
+            // Startup phase timings
+            case "getStartupTrace":
+                getStartupTrace(result);
+                break;
+
+            // Offline operation queue support
+            case "setOfflineQueueEnabled":
+                setOfflineQueueEnabled(call, result);
+                break;
+
+            // Offline operation queue counters
+            case "getOperationQueueStats":
+                getOperationQueueStats(result);
+                break;
+
+            // Plugin metrics retrieval
+            case "getPluginMetrics":
+                getPluginMetrics(result);
+                break;
+
+            // Plugin metrics reset
+            case "resetPluginMetrics":
+                resetPluginMetrics(result);
+                break;
         }
+    }
 
-        // Attempt to extract stringified JSON payload
-        String payload = intent.getStringExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD);
+    private void listen(Result result) {
+        // Start socket service (after first frame / on idle in deferred start mode)
+        PushyStartupTrace.getInstance().runDeferred("listen", PushyPersistence.isDeferredStart(mContext), new Runnable() {
+            @Override
+            public void run() {
+                Pushy.listen(mContext);
+            }
+        });
 
-        // No payload?
-        if (PushyStringUtils.stringIsNullOrEmpty(payload)) {
-            return;
-        }
+        // Send success result
+        success(result, "success");
+    }
 
-        // Notification payload object
-        JSONObject notification;
+    private void register(final Result result) {
+        // Queue for retry if it fails while offline
+        performRegister(getQueueingCallback(result, PushyOperationQueue.TYPE_REGISTER, Collections.<String>emptyList()));
+    }
 
-        try {
-            // Gracefully attempt to parse it back into JSONObject
-            notification = new JSONObject(payload);
-
-            // Mark notification as clicked
-            notification.put(PushyIntentExtras.NOTIFICATION_CLICKED, true);
-        } catch (Exception e) {
-            // Log error to logcat and stop execution
-            Log.e(PushyLogging.TAG, "Failed to parse notification click data into JSONObject:" + e.getMessage(), e);
-            return;
-        }
+    private void performRegister(PushyIOExecutor.Callback callback) {
+        // Run network I/O in background thread
+        mIOExecutor.execute("register", new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // Assign a unique token to this device (retries may run without an activity)
+                String deviceToken = Pushy.register(mActivity != null ? mActivity : mContext);
 
-        // No listener defined yet?
-        if (mNotificationListener == null) {
-            Log.d(PushyLogging.TAG, "No notification click listener is currently registered");
-            return;
-        }
+                // Reset cached topic state if the token changed
+                mTopicManager.onDeviceTokenChanged(deviceToken);
 
-        // Invoke the notification clicked handler (via EventChannel)
-        mNotificationListener.success(notification.toString());
+                // Update registration state cache (notifies Dart listeners)
+                PushyRegistrationState.getInstance().refresh(mContext);
+
+                // Resolve the promise with the token
+                return deviceToken;
+            }
+        }, callback);
     }
 
-    @Override
-    public void onMethodCall(MethodCall call, Result result) {
-        // // Start the socket service
-        if (call.method.equals("listen")) {
-            Pushy.listen(mContext);
+    private void getDeviceCredentials(final Result result) {
+        // Resolve the promise with cached credentials (values may be null)
+        success(result, PushyRegistrationState.getInstance().getDeviceCredentials(mContext));
+    }
 
-            // Send success result
-            success(result, "success");
-        }
+    private void setDeviceCredentials(final MethodCall call, final Result result) {
+        // Get arguments
+        ArrayList<String> args = call.arguments();
 
-        // Register the device for notifications
-        if (call.method.equals("register")) {
-            register(result);
-        }
+        // Create credentials object
+        PushyDeviceCredentials credentials = new PushyDeviceCredentials(args.get(0), args.get(1));
 
-        // Background notification listener
-        if (call.method.equals("setNotificationListener")) {
-            setNotificationListener(call, result);
-        }
-        
-        // Check if device is registered
-        if (call.method.equals("isRegistered")) {
-            isRegistered(result);
-        }
+        // Queue for retry if it fails while offline
+        performSetDeviceCredentials(credentials, getQueueingCallback(result, PushyOperationQueue.TYPE_SET_DEVICE_CREDENTIALS, args));
+    }
 
-        // Display a system notification
-        if (call.method.equals("notify")) {
-            notify(call, result);
-        }
+    private void performSetDeviceCredentials(final PushyDeviceCredentials credentials, PushyIOExecutor.Callback callback) {
+        // Run network I/O in background thread
+        mIOExecutor.execute("setDeviceCredentials", new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // Assign credentials for this device (may fail)
+                Pushy.setDeviceCredentials(credentials, mContext);
 
-        // Subscribe device to topic
-        if (call.method.equals("subscribe")) {
-            subscribe(call, result);
-        }
+                // Reset cached topic state if the token changed
+                mTopicManager.onDeviceTokenChanged(credentials.token);
 
-        // Unsubscribe device from topic
-        if (call.method.equals("unsubscribe")) {
-            unsubscribe(call, result);
-        }
+                // Update registration state cache (notifies Dart listeners)
+                PushyRegistrationState.getInstance().refresh(mContext);
 
-        // FCM fallback delivery
-        if (call.method.equals("toggleFCM")) {
-            toggleFCM(call, result);
-        }
+                // Resolve the promise successfully
+                return null;
+            }
+        }, callback);
+    }
 
-        // Toggle foreground service support
-        if (call.method.equals("toggleForegroundService")) {
-            toggleForegroundService(call, result);
-        }
+    @Override
+    public void onListen(Object args, final EventChannel.EventSink events) {
+        // Flutter app is listening for foreground notification events
+        Log.w("Pushy", "Flutter app is listening for foreground notification events");
 
-        // Get FCM fallback delivery token
-        if (call.method.equals("getFCMToken")) {
-            getFCMToken(result);
-        }
+        // Store handle for later
+        mNotificationListener = events;
 
-        // Pushy Enterprise support
-        if (call.method.equals("setEnterpriseConfig")) {
-            setEnterpriseConfig(call, result);
-        }
+        // Replay notification clicks captured so far (including the launch intent)
+        mClickBuffer.setListener(events, mContext);
+    }
 
-        // Toggle notifications support
-        if (call.method.equals("toggleNotifications")) {
-            toggleNotifications(call, result);
-        }
+    @Override
+    public void onCancel(Object args) {
+        // Clear notification listener
+        mNotificationListener = null;
 
-        // Custom icon support
-        if (call.method.equals("setNotificationIcon")) {
-            setNotificationIcon(call, result);
-        }
+        // Buffer notification clicks until the Flutter app listens again
+        mClickBuffer.setListener(null, mContext);
+    }
 
-        // Custom heartbeat interval support
-        if (call.method.equals("setHeartbeatInterval")) {
-            setHeartbeatInterval(call, result);
+    public static void deliverPendingNotifications(final Context context) {
+        // No foreground listener? Background isolate pulls journaled notifications until Dart acknowledges them
+        if (!isForegroundListenerActive()) {
+            PushyFlutterBackgroundExecutor.getSingletonInstance().deliverPendingNotifications(context);
+            return;
         }
 
-        // Custom JobService interval support
-        if (call.method.equals("setJobServiceInterval")) {
-            setJobServiceInterval(call, result);
+        // Batched delivery enabled? Journaled notifications go out with the next batch (read off the main thread)
+        if (PushyPersistence.getNotificationBatchInterval(context) > 0) {
+            PushyNotificationBatcher.getSingletonInstance().schedule(context);
+            return;
         }
 
-        // Device credential retrieval support
-        if (call.method.equals("getDeviceCredentials")) {
-            getDeviceCredentials(result);
-        }
+        // Get pending notifications journal
+        PushyNotificationJournal journal = PushyPersistence.getPendingNotificationJournal(context);
 
-        // Device credential assignment support
-        if (call.method.equals("setDeviceCredentials")) {
-            setDeviceCredentials(call, result);
+        try {
+            // Stream pending notifications one record at a time, releasing each one as it's delivered
+            // (anything appended meanwhile is kept)
+            journal.drain(new PushyNotificationJournal.Reader() {
+                @Override
+                public void onNotification(JSONObject notification) {
+                    // Emit notification to listener
+                    onNotificationReceived(notification, context);
+                }
+            });
         }
-
-        // Check whether app whitelisted from battery optimizations
-        if (call.method.equals("isIgnoringBatteryOptimizations")) {
-            isIgnoringBatteryOptimizations(result);
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to deliver pending notifications: " + e.getMessage(), e);
         }
+    }
 
-        // Launch battery optimizations activity
-        if (call.method.equals("launchBatteryOptimizationsActivity")) {
-            launchBatteryOptimizationsActivity(result);
+    public static void onNotificationReceived(final JSONObject notification, final Context context) {
+        // Batched delivery enabled (high priority lane is never held back)?
+        if (PushyPersistence.getNotificationBatchInterval(context) > 0 && notification.optInt(PushyIntentExtras.PRIORITY, 0) <= 0) {
+            // Deliver along with other notifications received within the batch interval
+            PushyNotificationBatcher.getSingletonInstance().enqueue(notification, context);
+            return;
         }
 
-        // Set Pushy App ID support
-        if (call.method.equals("setAppId")) {
-            setAppId(call, result);
+        // Activity is not running or no notification handler defined?
+        if (!isForegroundListenerActive()) {
+            // Store notification JSON in journal on the calling thread (it stays there until Dart acknowledges it)
+            PushyPersistence.persistNotification(notification, context);
+
+            // Deliver from journal (or start the isolate) on main thread
+            PushyMainThreadDispatcher.getInstance().deliverToBackgroundIsolate(context);
+            return;
         }
-    }
 
-    private void register(final Result result) {
-        // Run network I/O in background thread
-        Executors.newSingleThreadExecutor().execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    // Assign a unique token to this device
-                    String deviceToken = Pushy.register(mActivity);
-
-                    // Resolve the promise with the token
-                    success(result, deviceToken);
-                } catch (final PushyException exc) {
-                    // Reject the promise with the exception
-                    error(result, exc.getMessage());
-                }
-            }
-        });
+        // Deliver on main thread (coalesced with other notifications queued before the next looper pass)
+        PushyMainThreadDispatcher.getInstance().notification(notification, context);
     }
 
-    private void getDeviceCredentials(final Result result) {
-        // Get device unique credentials (may be null)
-        PushyDeviceCredentials credentials = Pushy.getDeviceCredentials(mContext);
+    public static boolean isForegroundListenerActive() {
+        // Any engine with a running activity and a notification handler defined?
+        for (PushyPlugin plugin : mPlugins) {
+            if (plugin.isForegroundListener()) {
+                return true;
+            }
+        }
 
-        // Convert to ArrayList<String>
-        ArrayList<String> list = new ArrayList<>(Arrays.asList(credentials.token, credentials.authKey));
+        // Only headless engines (or none) listening
+        return false;
+    }
 
-        // Resolve the promise with credentials
-        success(result, list);
+    private boolean isForegroundListener() {
+        // Activity is running and notification handler defined?
+        Activity activity = mActivity;
+        return mNotificationListener != null && activity != null && !activity.isFinishing();
     }
 
-    private void setDeviceCredentials(final MethodCall call, final Result result) {
-        // Get arguments
-        ArrayList<String> args = call.arguments();
+    public static void dispatchNotification(JSONObject notification, Context context) {
+        // Activity is running and notification handler defined?
+        if (isForegroundListenerActive()) {
+            // Log action
+            Log.d("Pushy", "Invoking notification listener in foreground (no isolate)");
 
-        // Create credentials object
-        final PushyDeviceCredentials credentials = new PushyDeviceCredentials(args.get(0), args.get(1));
+            // Encode once & fan out to every listening engine
+            sendToListeners(PushyPayloads.encode(notification, context));
+            return;
+        }
 
-        // Run network I/O in background thread
-        Executors.newSingleThreadExecutor().execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    // Assign credentials for this device (may fail)
-                    Pushy.setDeviceCredentials(credentials, mContext);
-
-                    // Resolve the promise successfully
-                    success(result, null);
-                } catch (final PushyException exc) {
-                    // Reject the promise with the exception
-                    error(result, exc.getMessage());
-                }
-            }
-        });
+        // Store notification JSON in journal (it stays there until Dart acknowledges it)
+        PushyPersistence.persistNotification(notification, context);
+
+        // Deliver from journal (or start the isolate)
+        deliverToBackgroundIsolate(context);
     }
 
-    @Override
-    public void onListen(Object args, final EventChannel.EventSink events) {
-        // Flutter app is listening for foreground notification events
-        Log.w("Pushy", "Flutter app is listening for foreground notification events");
+    public static void dispatchNotifications(List<JSONObject> notifications, Context context) {
+        // Single notification? Same payload shape as an unbatched event
+        if (notifications.size() == 1) {
+            dispatchNotification(notifications.get(0), context);
+            return;
+        }
 
-        // Store handle for later
-        mNotificationListener = events;
+        // Activity is running and notification handler defined?
+        if (isForegroundListenerActive()) {
+            // Log action
+            Log.d("Pushy", "Invoking notification listener in foreground (no isolate)");
 
-        // Activity not null?
-        if (mActivity != null) {
-            // If app was opened from notification, invoke notification click listener
-            onNotificationClicked(mActivity, mActivity.getIntent());
+            // Encode once (batched payloads packed into one event) & fan out to every listening engine
+            sendToListeners(PushyPayloads.encode(notifications, context));
+            return;
         }
-    }
 
-    @Override
-    public void onCancel(Object args) {
-        // Clear notification listener
-        mNotificationListener = null;
+        // Store notification JSON in journal (it stays there until Dart acknowledges it)
+        for (JSONObject notification : notifications) {
+            PushyPersistence.persistNotification(notification, context);
+        }
+
+        // Deliver from journal (or start the isolate)
+        deliverToBackgroundIsolate(context);
     }
 
-    public static void deliverPendingNotifications(Context context) {
-        // Get pending notifications
-        JSONArray notifications = PushyPersistence.getPendingNotifications(context);
+    private static void sendToListeners(Object payload) {
+        // Fan out the shared payload to every listening engine
+        for (PushyPlugin plugin : mPlugins) {
+            EventChannel.EventSink listener = plugin.mNotificationListener;
 
-        // Got at least one?
-        if (notifications.length() > 0) {
-            // Traverse notifications
-            for (int i = 0; i < notifications.length(); i++) {
-                try {
-                    // Emit notification to listener
-                    onNotificationReceived(notifications.getJSONObject(i), context);
-                }
-                catch (JSONException e) {
-                    // Log error to logcat
-                    Log.e(PushyLogging.TAG, "Failed to parse JSON object: " + e.getMessage(), e);
-                }
+            // Engine listening for notification events?
+            if (listener != null) {
+                listener.success(payload);
             }
-
-            // Clear persisted notifications
-            PushyPersistence.clearPendingNotifications(context);
         }
     }
 
-    public static void onNotificationReceived(final JSONObject notification, final Context context) {
-        // Run on main thread
-        new Handler(Looper.getMainLooper()).post(new Runnable() {
-            @Override
-            public void run() {
-                // Activity is running and notification handler defined?
-                if (mNotificationListener != null && mActivity != null && !mActivity.isFinishing()) {
-                    // Log action
-                    Log.d("Pushy", "Invoking notification listener in foreground (no isolate)");
-
-                    // Invoke with notification payload
-                    mNotificationListener.success(notification.toString());
-                    return;
-                }
-
-                // Activity is not running or no notification handler defined?
-                if (!PushyFlutterBackgroundExecutor.isRunning()) {
-                    // Start background isolate
-                    PushyFlutterBackgroundExecutor.getSingletonInstance().startBackgroundIsolate(context);
+    public static void deliverToBackgroundIsolate(Context context) {
+        // Isolate not running yet?
+        if (!PushyFlutterBackgroundExecutor.isRunning()) {
+            // Start background isolate (journaled notifications are delivered when it's ready)
+            PushyFlutterBackgroundExecutor.getSingletonInstance().startBackgroundIsolate(context);
+            return;
+        }
 
-                    // Store notification JSON in SharedPreferences and deliver it when isolate ready
-                    PushyPersistence.persistNotification(notification, context);
-                }
-                else {
-                    // Log action
-                    Log.d("Pushy", "Handling notification in Flutter background isolate");
+        // Log action
+        Log.d("Pushy", "Handling notification in Flutter background isolate");
 
-                    // Run on background executor
-                    PushyFlutterBackgroundExecutor.getSingletonInstance().invokeDartNotificationHandler(notification, context);
-                }
-            }
-        });
+        // Send journaled notifications within the delivery window
+        PushyFlutterBackgroundExecutor.getSingletonInstance().deliverPendingNotifications(context);
     }
 
-    @SuppressWarnings("unchecked")
     private void subscribe(final MethodCall call, final Result result) {
         // Get arguments
         final ArrayList<Object> args = call.arguments();
 
-        // Run network I/O in background thread
-        Executors.newSingleThreadExecutor().execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    // Single topic?
-                    if (args.get(0) instanceof String) {
-                        // Attempt to subscribe the device to topic
-                        Pushy.subscribe((String)args.get(0), mContext);
-                    }
-                    // Multiple topics?
-                    else if (args.get(0) instanceof ArrayList) {
-                        // Attempt to subscribe the device to multiple topics
-                        Pushy.subscribe(((ArrayList<String>)(args.get(0))).toArray(new String[0]), mContext);
-                    }
-
-                    // Resolve the callback with success
-                    success(result, "success");
-                } catch (Exception exc) {
-                    // Reject the callback with the exception
-                    error(result, exc.getMessage());
-                }
-            }
-        });
+        // Single topic or multiple topics
+        String[] topics = getTopics(args.get(0));
+
+        // Coalesce with other pending topic changes (network I/O runs in background thread, queued for retry if offline)
+        mTopicManager.subscribe(topics, getQueueingCallback(result, PushyOperationQueue.TYPE_SUBSCRIBE, Arrays.asList(topics)));
     }
 
-    @SuppressWarnings("unchecked")
     private void unsubscribe(final MethodCall call, final Result result) {
         // Get arguments
         final ArrayList<Object> args = call.arguments();
 
-        // Run network I/O in background thread
-        Executors.newSingleThreadExecutor().execute(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    // Single topic?
-                    if (args.get(0) instanceof String) {
-                        // Attempt to unsubscribe the device from topic
-                        Pushy.unsubscribe((String)args.get(0), mContext);
-                    }
-                    // Multiple topics?
-                    else if (args.get(0) instanceof ArrayList) {
-                        // Attempt to unsubscribe the device from multiple topics
-                        Pushy.unsubscribe(((ArrayList<String>)(args.get(0))).toArray(new String[0]), mContext);
-                    }
-
-                    // Resolve the callback with success
-                    success(result, "success");
-                } catch (Exception exc) {
-                    // Reject the callback with the exception
-                    error(result, exc.getMessage());
-                }
-            }
-        });
+        // Single topic or multiple topics
+        String[] topics = getTopics(args.get(0));
+
+        // Coalesce with other pending topic changes (network I/O runs in background thread, queued for retry if offline)
+        mTopicManager.unsubscribe(topics, getQueueingCallback(result, PushyOperationQueue.TYPE_UNSUBSCRIBE, Arrays.asList(topics)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String[] getTopics(Object arg) {
+        // Single topic?
+        if (arg instanceof String) {
+            return new String[]{(String) arg};
+        }
+        // Multiple topics?
+        else if (arg instanceof ArrayList) {
+            return ((ArrayList<String>) arg).toArray(new String[0]);
+        }
+
+        // Invalid argument
+        return new String[0];
     }
 
     private void setEnterpriseConfig(MethodCall call, Result result) {
@@ -476,7 +745,7 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
         int interval = args.get(0);
 
         // Modify JobService interval
-        Pushy.setJobServiceInterval(interval, mActivity);
+        Pushy.setJobServiceInterval(interval, mContext);
 
         // Return success
         success(result, "success");
@@ -540,23 +809,261 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
 
     private void getFCMToken(final Result result) {
         // Run synchronous operation in background thread
-        Executors.newSingleThreadExecutor().execute(new Runnable() {
+        runInBackground("getFCMToken", result, new PushyIOExecutor.Task() {
             @Override
-            public void run() {
-                try {
-                    // Fetch FCM fallback delivery token (blocking call)
-                    String fcmToken = Pushy.getFCMToken();
-
-                    // Resolve the promise with the token
-                    success(result, fcmToken);
-                } catch (final PushyException exc) {
-                    // Reject the promise with the exception
-                    error(result, exc.getMessage());
-                }
+            public Object run() throws Exception {
+                // Fetch FCM fallback delivery token (blocking call)
+                return Pushy.getFCMToken();
             }
         });
     }
 
+    private void setIOExecutorConfig(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Maximum number of concurrent blocking calls
+        mIOExecutor.setConcurrency(args.get(0));
+
+        // Per-call timeout in ms (0 disables it, also applies to topic batches)
+        mIOExecutor.setTimeout(args.get(1));
+        mTopicManager.getIOExecutor().setTimeout(args.get(1));
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getIOExecutorStats(Result result) {
+        // Resolve with queue depth, wait time & outcome counters
+        success(result, mIOExecutor.getStats());
+    }
+
+    private void setBackgroundEngineOptions(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Boolean> args = call.arguments();
+
+        // Persist engine group & pre-warm options
+        PushyFlutterBackgroundExecutor.setEngineOptions(mContext, args.get(0), args.get(1));
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void setBackgroundEngineIdleTimeout(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Persist idle timeout in seconds (0 keeps the engine alive)
+        PushyFlutterBackgroundExecutor.setIdleTimeout(mContext, args.get(0));
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void setBackgroundDeliveryWindow(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Persist maximum number of unacknowledged notifications
+        PushyFlutterBackgroundExecutor.setDeliveryWindow(mContext, args.get(0));
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getPriorityLaneMetrics(Result result) {
+        // Resolve with per-lane delivery counts & latency percentiles
+        success(result, PushyFlutterBackgroundExecutor.getSingletonInstance().getLaneMetrics());
+    }
+
+    private void getBackgroundIsolateStats(Result result) {
+        // Resolve with start mode, cold start latency & RSS
+        success(result, PushyFlutterBackgroundExecutor.getSingletonInstance().getStats());
+    }
+
+    private void setNotificationBatching(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Persist batch interval in ms (0 disables batching)
+        PushyPersistence.setNotificationBatchInterval(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void toggleLegacyPayloadFormat(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Boolean> args = call.arguments();
+
+        // Persist payload format (read when the process is started by a notification)
+        PushyPersistence.setLegacyPayloadFormat(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void togglePayloadDeduplication(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Boolean> args = call.arguments();
+
+        // Persist payload deduplication mode (read when the process is started by a notification)
+        PushyPersistence.setPayloadDeduplication(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void setNotificationCollapsing(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Collapsing window in ms (0 disables collapsing)
+        mNotificationCollapser.setWindow(args.get(0));
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getNotificationGroupStats(Result result) {
+        // Resolve with per-group counters
+        success(result, mNotificationCollapser.getStats());
+    }
+
+    private void setPendingQueueLimits(MethodCall call, Result result) {
+        // Get arguments (byte / TTL limits may exceed int range)
+        final ArrayList<Number> args = call.arguments();
+
+        // Persist max count, max bytes, eviction policy & default TTL in ms (0 = unlimited)
+        PushyPersistence.setPendingQueueLimits(args.get(0).intValue(), args.get(1).longValue(), args.get(2).intValue(), args.get(3).longValue(), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getPendingQueueStats(final Result result) {
+        // Journal stats may require disk I/O
+        runInBackground("getPendingQueueStats", result, new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // Resolve with queue depth, limits & eviction / expiry counters
+                return PushyPersistence.getPendingNotificationJournal(mContext).getStats();
+            }
+        });
+    }
+
+    private void getDispatcherStats(Result result) {
+        // Resolve with event & looper message counters
+        success(result, PushyMainThreadDispatcher.getInstance().getStats());
+    }
+
+    private void setLargePayloadThreshold(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Integer> args = call.arguments();
+
+        // Persist threshold in bytes (0 disables out-of-band delivery)
+        PushyPersistence.setLargePayloadThreshold(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getLargePayloadStats(Result result) {
+        // Resolve with stored blob & fetch counters
+        success(result, PushyBlobStore.getInstance(mContext).getStats());
+    }
+
+    private void setDeferredStart(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Boolean> args = call.arguments();
+
+        // Persist deferred start mode (read in onAttachedToEngine)
+        PushyPersistence.setDeferredStart(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getStartupTrace(Result result) {
+        // Resolve with phase offsets (since process start) & durations
+        success(result, PushyStartupTrace.getInstance().getReport());
+    }
+
+    private void setOfflineQueueEnabled(MethodCall call, Result result) {
+        // Get arguments
+        final ArrayList<Boolean> args = call.arguments();
+
+        // Persist offline queue mode
+        PushyPersistence.setOfflineQueueEnabled(args.get(0), mContext);
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void getOperationQueueStats(Result result) {
+        // Resolve with queued operation & retry counters
+        success(result, mOperationQueue.getStats());
+    }
+
+    private void getPluginMetrics(Result result) {
+        // Resolve with per-method counters & latency percentiles
+        success(result, mMetrics.getMetrics());
+    }
+
+    private void resetPluginMetrics(Result result) {
+        // Drop all recorded metrics (method latency & priority lane latency start over together)
+        mMetrics.reset();
+        PushyFlutterBackgroundExecutor.getSingletonInstance().resetLaneMetrics();
+
+        // Return success
+        success(result, "success");
+    }
+
+    private void runInBackground(String name, final Result result, PushyIOExecutor.Task task) {
+        // Run blocking call on the shared I/O executor
+        mIOExecutor.execute(name, task, getCallback(result));
+    }
+
+    private PushyIOExecutor.Callback getCallback(final Result result) {
+        // Settle the method call on the main thread
+        return new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Resolve the promise with the value
+                success(result, value);
+            }
+
+            @Override
+            public void onError(String message) {
+                // Reject the promise with the error message
+                error(result, message);
+            }
+        };
+    }
+
+    private PushyIOExecutor.Callback getQueueingCallback(final Result result, final String type, final List<String> args) {
+        // Settle the method call on the main thread
+        return new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Resolve the promise with the value
+                success(result, value);
+            }
+
+            @Override
+            public void onError(String message) {
+                // Failed while offline? Queue for retry & let Dart know it's pending
+                if (mOperationQueue.offer(type, args)) {
+                    PushyMainThreadDispatcher.getInstance().error(result, "PUSHY QUEUED", message);
+                    return;
+                }
+
+                // Reject the promise with the error message
+                error(result, message);
+            }
+        };
+    }
+
     private void isIgnoringBatteryOptimizations(final Result result) {
         // Get power manager instance
         PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
@@ -574,8 +1081,8 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
     }
 
     private void isRegistered(Result result) {
-        // Resolve the event with boolean result
-        success(result, Pushy.isRegistered(mContext) ? "true" : "false");
+        // Resolve the event with cached boolean result
+        success(result, PushyRegistrationState.getInstance().isRegistered(mContext));
     }
 
     public void notify(MethodCall call, Result result) {
@@ -587,22 +1094,28 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
         String text = args.get(1);
         String payload = args.get(2);
 
-        // Prepare a notification with vibration, sound and lights
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(mContext, PushyNotificationChannel.CHANNEL_ID)
-                .setSmallIcon(PushyNotification.getNotificationIcon(mContext))
+        // Collapsing mode? Group with other notifications posted within the window
+        if (mNotificationCollapser.isEnabled()) {
+            // Optional group key
+            String group = args.size() > 3 ? args.get(3) : null;
+
+            // Post (or fold into summary) at a rate the system won't throttle
+            mNotificationCollapser.notify(title, text, payload, group);
+
+            // Return success
+            success(result, true);
+            return;
+        }
+
+        // Prepare a notification with vibration, sound and lights (icon, sound & channel resolved once)
+        NotificationCompat.Builder builder = PushyNotification.createNotificationBuilder(mContext)
                 .setContentTitle(title)
                 .setContentText(text)
-                .setAutoCancel(true)
-                .setVibrate(new long[]{0, 400, 250, 400})
-                .setContentIntent(PushyNotification.getMainActivityPendingIntent(mContext, payload))
-                .setSound(RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION));
+                .setContentIntent(PushyNotification.getMainActivityPendingIntent(mContext, payload));
 
         // Get an instance of the NotificationManager service
         NotificationManager notificationManager = (NotificationManager) mContext.getSystemService(mContext.NOTIFICATION_SERVICE);
 
-        // Automatically configure a Notification Channel for devices running Android O+
-        Pushy.setNotificationChannel(builder, mContext);
-
         // Build the notification and display it
         notificationManager.notify(text.hashCode(), builder.build());
 
@@ -624,26 +1137,14 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
         success(result, "success");
     }
 
-    void success(final Result result, final Object message) {
-        // Run on main thread
-        new Handler(Looper.getMainLooper()).post(new Runnable() {
-            @Override
-            public void run() {
-                // Resolve the method
-                result.success(message);
-            }
-        });
+    void success(Result result, Object message) {
+        // Resolve the method on main thread
+        PushyMainThreadDispatcher.getInstance().success(result, message);
     }
 
-    void error(final Result result, final String message) {
-        // Run on main thread
-        new Handler(Looper.getMainLooper()).post(new Runnable() {
-            @Override
-            public void run() {
-                // Reject the method
-                result.error("PUSHY ERROR", message, null);
-            }
-        });
+    void error(Result result, String message) {
+        // Reject the method on main thread
+        PushyMainThreadDispatcher.getInstance().error(result, message);
     }
 
     @Override
@@ -652,13 +1153,37 @@ public class PushyPlugin implements FlutterPlugin, ActivityAware, MethodCallHand
 
     @Override
     public void onReattachedToActivityForConfigChanges(@NonNull ActivityPluginBinding binding) {
+        // Store recreated activity & listen for its new intents
+        onAttachedToActivity(binding);
     }
 
     @Override
     public void onDetachedFromActivity() {
+        // This engine no longer has a UI
+        mActivity = null;
     }
 
     @Override
     public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+        // Stop sending notification events to this engine
+        mPlugins.remove(this);
+        mNotificationListener = null;
+        mClickBuffer.setListener(null, mContext);
+
+        // Drop this engine's sinks (Dart never cancels its streams when the engine is destroyed)
+        mRegistrationStreamHandler.onCancel(null);
+        mOperationStreamHandler.onCancel(null);
+
+        // Stop retrying queued operations through this engine
+        mOperationQueue.detach(mOperationRunner);
+
+        // Last engine gone? Reject queued topic changes & post pending notification summaries (shared by all engines)
+        if (mPlugins.isEmpty()) {
+            mTopicManager.shutdown();
+            mNotificationCollapser.shutdown();
+        }
+
+        // Cancel pending blocking calls and release worker threads
+        mIOExecutor.shutdown();
     }
 }
@@ -4,4 +4,7 @@ public class PushyChannels {
     public static final String EVENT_CHANNEL = "me.pushy.sdk.flutter/events";
     public static final String METHOD_CHANNEL = "me.pushy.sdk.flutter/methods";
     public static final String BACKGROUND_CHANNEL = "me.pushy.sdk.flutter/background";
+    public static final String BLOB_CHANNEL = "me.pushy.sdk.flutter/blobs";
+    public static final String REGISTRATION_CHANNEL = "me.pushy.sdk.flutter/registration";
+    public static final String OPERATION_CHANNEL = "me.pushy.sdk.flutter/operations";
 }
@@ -3,4 +3,9 @@ package me.pushy.sdk.flutter.config;
 public class PushyIntentExtras {
     public static final String NOTIFICATION_CLICKED = "_pushyNotificationClicked";
     public static final String NOTIFICATION_PAYLOAD = "_pushyNotificationPayload";
+    public static final String MESSAGE_ID = "_pushyMessageId";
+    public static final String PRIORITY = "_pushyPriority";
+    public static final String TTL = "_pushyTtl";
+    public static final String PAYLOAD_HANDLE = "_pushyPayloadHandle";
+    public static final String PAYLOAD_SIZE = "_pushyPayloadSize";
 }
@@ -3,4 +3,8 @@ package me.pushy.sdk.flutter.config;
 public class PushySharedPrefs {
     public static String FLUTTER_ISOLATE_ID = "_pushyFlutterIsolateId";
     public static String FLUTTER_NOTIFICATION_HANDLER_ID = "_pushyFlutterNotificationHandlerId";
+    public static String FLUTTER_ENGINE_GROUP = "_pushyFlutterEngineGroup";
+    public static String FLUTTER_ENGINE_PREWARM = "_pushyFlutterEnginePrewarm";
+    public static String FLUTTER_ENGINE_IDLE_TIMEOUT = "_pushyFlutterEngineIdleTimeout";
+    public static String FLUTTER_DELIVERY_WINDOW = "_pushyFlutterDeliveryWindow";
 }
@@ -3,43 +3,59 @@ package me.pushy.sdk.flutter.internal;
 import android.content.Intent;
 import android.content.Context;
 import android.content.BroadcastReceiver;
-import android.os.Bundle;
 import android.util.Log;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
-import me.pushy.sdk.flutter.PushyPlugin;
 import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.PushyPlugin;
+import me.pushy.sdk.flutter.util.PushyBlobStore;
+import me.pushy.sdk.flutter.util.PushyNotificationDeduplicator;
+import me.pushy.sdk.flutter.util.PushyPersistence;
 
 public class PushyInternalReceiver extends BroadcastReceiver {
-    @Override
-    public void onReceive(Context context, Intent intent) {
-        // Prepare JSON object containing the notification payload
-        JSONObject json = new JSONObject();
-
-        // Get intent extras
-        Bundle bundle = intent.getExtras();
-
-        // Get JSON key names
-        Set<String> keys = bundle.keySet();
-
-        // Traverse keys
-        for (String key : keys) {
-            try {
-                // Attempt to insert the key and its value into the JSONObject
-                json.put(key, bundle.get(key));
-            }
-            catch (JSONException e) {
-                // Log error to logcat and stop execution
-                Log.e(PushyLogging.TAG, "Failed to insert intent extra into JSONObject:" + e.getMessage(), e);
-                return;
-            }
+    // Single worker preserves notification order
+    private static final ExecutorService mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "PushyInternalReceiver");
         }
+    });
 
-        // Invoke the notification received handler
-        PushyPlugin.onNotificationReceived(json, context);
+    @Override
+    public void onReceive(final Context context, final Intent intent) {
+        // Keep the broadcast alive while we process it off the main thread
+        final PendingResult pendingResult = goAsync();
+
+        // Process notification on worker thread
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Convert intent extras into JSON object containing the notification payload
+                    JSONObject json = PushyPersistence.getJSONObjectFromIntentExtras(intent);
+
+                    // Already delivered (e.g. over both MQTT and FCM)? Drop before any Flutter work
+                    if (PushyNotificationDeduplicator.getInstance(context).isDuplicate(json, context)) {
+                        Log.d(PushyLogging.TAG, "Dropping duplicate notification");
+                        return;
+                    }
+
+                    // Large payload? Store it once and pass a small handle along instead
+                    json = PushyBlobStore.getInstance(context).offload(json, context);
+
+                    // Invoke the notification received handler
+                    PushyPlugin.onNotificationReceived(json, context);
+                }
+                finally {
+                    // Let the system know we're done
+                    pendingResult.finish();
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
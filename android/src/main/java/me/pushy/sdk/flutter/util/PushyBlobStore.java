@@ -0,0 +1,224 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
+import io.flutter.plugin.common.BinaryMessenger;
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.config.PushyChannels;
+import me.pushy.sdk.flutter.config.PushyIntentExtras;
+
+// Stores large notification payloads once on disk, so only a small handle travels through the journal & channels
+// Dart fetches the body over a binary channel, answered with a memory-mapped (direct) buffer of the blob file
+public class PushyBlobStore implements BasicMessageChannel.MessageHandler<ByteBuffer> {
+    private static final String DIRECTORY_NAME = "pushy_payloads";
+
+    // Blobs nobody fetched are removed after a day
+    private static final long MAX_AGE_MS = 24 * 60 * 60 * 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static PushyBlobStore mInstance;
+
+    private final File mDirectory;
+
+    private long mStoredCount;
+    private long mStoredBytes;
+    private long mFetchCount;
+
+    public static synchronized PushyBlobStore getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyBlobStore(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyBlobStore(Context context) {
+        // Blobs live in app-private storage
+        mDirectory = new File(context.getFilesDir(), DIRECTORY_NAME);
+    }
+
+    public void attach(BinaryMessenger messenger) {
+        // Answer blob fetches from this engine with direct buffers, on a background task queue (not the platform thread)
+        new BasicMessageChannel<>(messenger, PushyChannels.BLOB_CHANNEL, BinaryCodec.INSTANCE_DIRECT, messenger.makeBackgroundTaskQueue()).setMessageHandler(this);
+    }
+
+    public JSONObject offload(JSONObject notification, Context context) {
+        // Get size threshold (0 = disabled)
+        int threshold = PushyPersistence.getLargePayloadThreshold(context);
+
+        // Disabled?
+        if (threshold <= 0) {
+            return notification;
+        }
+
+        // Encode payload once
+        byte[] body = notification.toString().getBytes(UTF_8);
+
+        // Small enough to travel inline?
+        if (body.length <= threshold) {
+            return notification;
+        }
+
+        try {
+            // Store body & get handle
+            String handle = store(body);
+
+            // Small stub referencing the blob (keeps reserved keys used for dedupe, priority & TTL)
+            JSONObject stub = new JSONObject();
+            stub.put(PushyIntentExtras.PAYLOAD_HANDLE, handle);
+            stub.put(PushyIntentExtras.PAYLOAD_SIZE, body.length);
+            copy(notification, stub, PushyIntentExtras.MESSAGE_ID);
+            copy(notification, stub, PushyIntentExtras.PRIORITY);
+            copy(notification, stub, PushyIntentExtras.TTL);
+
+            // Send stub in place of payload
+            return stub;
+        }
+        catch (IOException | JSONException e) {
+            // Log error to logcat and deliver inline
+            Log.e(PushyLogging.TAG, "Failed to store large notification payload: " + e.getMessage(), e);
+            return notification;
+        }
+    }
+
+    @Override
+    public void onMessage(ByteBuffer message, BasicMessageChannel.Reply<ByteBuffer> reply) {
+        // Decode handle
+        byte[] handle = new byte[message.remaining()];
+        message.get(handle);
+
+        // Look up blob file
+        File file = getFile(new String(handle, UTF_8));
+
+        // Unknown or expired handle?
+        if (file == null || !file.exists()) {
+            reply.reply(null);
+            return;
+        }
+
+        try {
+            // Map blob read-only (direct buffer, no copy onto the Java heap)
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+            try {
+                FileChannel channel = randomAccessFile.getChannel();
+                reply.reply(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+            finally {
+                // Mapping stays valid after the file is closed
+                randomAccessFile.close();
+            }
+
+            // Count fetch
+            synchronized (this) {
+                mFetchCount++;
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to read large notification payload: " + e.getMessage(), e);
+            reply.reply(null);
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        // Prepare stats map
+        Map<String, Object> stats = new HashMap<>();
+
+        // Populate counters
+        stats.put("storedCount", mStoredCount);
+        stats.put("storedBytes", mStoredBytes);
+        stats.put("fetchCount", mFetchCount);
+
+        // All done
+        return stats;
+    }
+
+    private synchronized String store(byte[] body) throws IOException {
+        // Create directory (if necessary)
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            throw new IOException("Failed to create payload directory");
+        }
+
+        // Remove blobs nobody fetched
+        purgeExpired();
+
+        // Random handle (also the file name)
+        String handle = UUID.randomUUID().toString();
+
+        // Write body (single copy to disk)
+        FileOutputStream outputStream = new FileOutputStream(new File(mDirectory, handle));
+
+        try {
+            outputStream.write(body);
+            outputStream.getFD().sync();
+        }
+        finally {
+            outputStream.close();
+        }
+
+        // Update counters
+        mStoredCount++;
+        mStoredBytes += body.length;
+
+        // All done
+        return handle;
+    }
+
+    private void purgeExpired() {
+        // List blob files
+        File[] files = mDirectory.listFiles();
+
+        // Nothing stored?
+        if (files == null) {
+            return;
+        }
+
+        // Delete files older than max age
+        long now = System.currentTimeMillis();
+
+        for (File file : files) {
+            if (now - file.lastModified() > MAX_AGE_MS && !file.delete()) {
+                Log.e(PushyLogging.TAG, "Failed to delete expired notification payload");
+            }
+        }
+    }
+
+    private File getFile(String handle) {
+        // Reject anything that isn't a plain file name
+        if (handle.isEmpty() || handle.contains("/") || handle.contains("..")) {
+            return null;
+        }
+
+        // Resolve blob file
+        return new File(mDirectory, handle);
+    }
+
+    private static void copy(JSONObject from, JSONObject to, String key) throws JSONException {
+        // Key present?
+        if (from.has(key)) {
+            to.put(key, from.get(key));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+
+import io.flutter.plugin.common.EventChannel;
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.config.PushyIntentExtras;
+import me.pushy.sdk.util.PushyStringUtils;
+
+// Captures notification clicks (launch intent & new intents) as soon as the activity attaches
+// Clicks are held until the Flutter app listens for events, then replayed in order (encoded on delivery, so the payload format the app picked applies)
+public class PushyClickBuffer {
+    // Keep at most this many clicks while nobody is listening (oldest dropped)
+    private static final int MAX_SIZE = 16;
+
+    private final ArrayDeque<JSONObject> mClicks = new ArrayDeque<>();
+
+    private EventChannel.EventSink mListener;
+    private Context mContext;
+
+    public void capture(Intent intent) {
+        // No intent or not a clicked Pushy notification?
+        if (intent == null || !intent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false)) {
+            return;
+        }
+
+        // Consume click (launch intent is seen again on re-listen & config changes)
+        intent.removeExtra(PushyIntentExtras.NOTIFICATION_CLICKED);
+
+        // Attempt to extract stringified JSON payload
+        String payload = intent.getStringExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD);
+
+        // No payload?
+        if (PushyStringUtils.stringIsNullOrEmpty(payload)) {
+            return;
+        }
+
+        // Parsed notification marked as clicked
+        JSONObject event;
+
+        try {
+            event = new JSONObject(payload).put(PushyIntentExtras.NOTIFICATION_CLICKED, true);
+        }
+        catch (JSONException e) {
+            // Not a JSON object
+            Log.e(PushyLogging.TAG, "Failed to parse notification click data into JSONObject: " + payload);
+            return;
+        }
+
+        // Listening? Deliver right away
+        if (mListener != null) {
+            mListener.success(PushyPayloads.encode(event, mContext));
+            return;
+        }
+
+        // Full? Drop oldest click
+        if (mClicks.size() >= MAX_SIZE) {
+            mClicks.poll();
+            Log.w(PushyLogging.TAG, "Notification click buffer full, dropping oldest click");
+        }
+
+        // Hold until the Flutter app listens
+        mClicks.add(event);
+
+        // Log action
+        Log.d(PushyLogging.TAG, "Buffered notification click until a listener is registered");
+    }
+
+    public void setListener(EventChannel.EventSink listener, Context context) {
+        // Store listener & context for later (null listener stops delivery)
+        mListener = listener;
+        mContext = context;
+
+        // Stopped listening?
+        if (listener == null) {
+            return;
+        }
+
+        // Replay buffered clicks in order
+        while (!mClicks.isEmpty()) {
+            listener.success(PushyPayloads.encode(mClicks.poll(), context));
+        }
+    }
+}
@@ -3,16 +3,30 @@ package me.pushy.sdk.flutter.util;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.res.AssetManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import org.json.JSONObject;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import io.flutter.FlutterInjector;
 import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.FlutterEngineGroup;
 import io.flutter.embedding.engine.dart.DartExecutor;
 import io.flutter.embedding.engine.dart.DartExecutor.DartCallback;
 import io.flutter.plugin.common.BinaryMessenger;
-import io.flutter.plugin.common.JSONMethodCodec;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
@@ -24,12 +38,45 @@ import me.pushy.sdk.flutter.config.PushyChannels;
 import me.pushy.sdk.flutter.config.PushySharedPrefs;
 
 public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
-    private boolean mIsIsolateRunning;
+    private static final String ENGINE_GROUP_ENTRYPOINT_LIBRARY = "package:pushy_flutter/pushy_flutter.dart";
+    private static final String ENGINE_GROUP_ENTRYPOINT_FUNCTION = "pushyBackgroundIsolate";
+
+    // Notifications awaiting a Dart acknowledgement at once (by default)
+    private static final int DEFAULT_DELIVERY_WINDOW = 8;
+
+    // Release in-flight notifications for redelivery if Dart doesn't reply within this time
+    private static final long ACK_TIMEOUT_MS = 60 * 1000;
+
+    private volatile boolean mIsIsolateRunning;
+
+    // Set while the background engine is being created (its plugin registration attaches PushyPlugin, which prewarms)
+    private boolean mIsStarting;
 
     private MethodChannel mBackgroundChannel;
     private FlutterEngine mBackgroundFlutterEngine;
 
+    private final Handler mIdleHandler = new Handler(Looper.getMainLooper());
+    private final Handler mAckTimeoutHandler = new Handler(Looper.getMainLooper());
+    private long mStartCount;
+    private long mIdleShutdownCount;
+
+    private final PushyLaneMetrics mLaneMetrics = new PushyLaneMetrics();
+
+    private int mInFlightCount;
+    private long mSentCount;
+    private long mAcknowledgedCount;
+    private long mHandlerErrorCount;
+    private long mUnacknowledgedCount;
+    private long mAckTimeoutCount;
+
+    private String mStartMode;
+    private long mStartTimestamp;
+    private long mColdStartMs;
+    private long mRssBeforeStartKb;
+    private long mRssAfterStartKb;
+
     private static Context mContext;
+    private static volatile FlutterEngineGroup mEngineGroup;
     private static PushyFlutterBackgroundExecutor mInstance;
 
     public static boolean isRunning() {
@@ -55,9 +102,51 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
         startBackgroundIsolate(context, isolateCallbackId, notificationHandlerCallbackId);
     }
 
+    public void prewarmBackgroundIsolate(Context context) {
+        // Pre-warming disabled or isolate already started (or starting, i.e. we're attaching to the background engine)?
+        if (!PushyPersistence.getSettings(context).getBoolean(PushySharedPrefs.FLUTTER_ENGINE_PREWARM, false) || mBackgroundFlutterEngine != null || mIsStarting) {
+            return;
+        }
+
+        // Log pre-warm
+        Log.d(PushyLogging.TAG, "Pre-warming background isolate");
+
+        // Start isolate ahead of the first notification
+        startBackgroundIsolate(context);
+    }
+
+    public static void setEngineOptions(Context context, boolean useEngineGroup, boolean prewarm) {
+        // Persist options for when the process is started by a notification
+        PushyPersistence.getSettings(context).edit()
+                .putBoolean(PushySharedPrefs.FLUTTER_ENGINE_GROUP, useEngineGroup)
+                .putBoolean(PushySharedPrefs.FLUTTER_ENGINE_PREWARM, prewarm)
+                .apply();
+    }
+
+    public static void setEngineGroup(FlutterEngineGroup engineGroup) {
+        // Host app's engine group (call from Application.onCreate() with the group its UI engines are spawned from)
+        // Engine group mode only saves startup time & memory when the group already runs an engine, so we never create our own
+        mEngineGroup = engineGroup;
+    }
+
+    public static void setDeliveryWindow(Context context, int window) {
+        // Persist delivery window (maximum number of unacknowledged notifications)
+        PushyPersistence.getSettings(context).edit().putInt(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW, Math.max(1, window)).apply();
+    }
+
+    public static void setIdleTimeout(Context context, int idleTimeoutSeconds) {
+        // Persist idle timeout for when the process is started by a notification (0 = never shut down)
+        PushyPersistence.getSettings(context).edit().putInt(PushySharedPrefs.FLUTTER_ENGINE_IDLE_TIMEOUT, idleTimeoutSeconds).apply();
+
+        // Apply to running engine
+        if (isInitialized()) {
+            getSingletonInstance().scheduleIdleShutdown(context);
+        }
+    }
+
     public void startBackgroundIsolate(Context context, long isolateCallbackId, long notificationHandlerCallbackId) {
-        // Additional check to ensure isolate not already started
-        if (mBackgroundFlutterEngine != null || isRunning()) {
+        // Additional check to ensure isolate not already started (or being started further up the stack)
+        if (mBackgroundFlutterEngine != null || mIsStarting || isRunning()) {
             Log.e(PushyLogging.TAG, "Background isolate already started / running");
             return;
         }
@@ -82,7 +171,36 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
         String appBundlePath = FlutterInjector.instance().flutterLoader().findAppBundlePath();
 
         // Null safety check
-        if (appBundlePath != null) {
+        if (appBundlePath == null) {
+            return;
+        }
+
+        // Guard against re-entry until the engine is assigned (constructing it registers plugins synchronously)
+        mIsStarting = true;
+
+        try {
+            // Count (re)starts
+            mStartCount++;
+
+            // Measure cold start latency & memory cost
+            mStartTimestamp = SystemClock.elapsedRealtime();
+            mRssBeforeStartKb = getRssKb();
+
+            // Spawn from the host app's FlutterEngineGroup?
+            if (PushyPersistence.getSettings(context).getBoolean(PushySharedPrefs.FLUTTER_ENGINE_GROUP, false)) {
+                // Host app supplied one?
+                if (mEngineGroup != null) {
+                    startBackgroundIsolateFromEngineGroup(context, appBundlePath, isolateCallbackId);
+                    return;
+                }
+
+                // No-op without a host-supplied group (a group of our own would only hold this engine)
+                Log.w(PushyLogging.TAG, "Engine group mode enabled but no FlutterEngineGroup supplied via setEngineGroup(), using a standalone engine");
+            }
+
+            // Standalone engine mode
+            mStartMode = "engine";
+
             // We need to create an instance of `FlutterEngine` before looking up the callback
             // If we don't, the callback cache won't be initialized and the lookup will fail
             mBackgroundFlutterEngine = new FlutterEngine(context);
@@ -93,6 +211,10 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
             // Notify in case of failure
             if (flutterCallback == null) {
                 Log.e(PushyLogging.TAG, "Failed to locate _isolate() callback");
+
+                // Release engine (otherwise it's never destroyed and blocks future starts)
+                mBackgroundFlutterEngine.destroy();
+                mBackgroundFlutterEngine = null;
                 return;
             }
 
@@ -105,20 +227,106 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
             // Execute the callback (when it's done it will invoke a method call to "notificationCallbackReady")
             executor.executeDartCallback(new DartCallback(assets, appBundlePath, flutterCallback));
         }
+        finally {
+            // Engine assigned (or start abandoned)
+            mIsStarting = false;
+        }
+    }
+
+    private void startBackgroundIsolateFromEngineGroup(Context context, String appBundlePath, long isolateCallbackId) {
+        // Engine group mode
+        mStartMode = "engineGroup";
+
+        // Public entry point that resolves & runs the registered isolate callback (passed as an argument)
+        DartExecutor.DartEntrypoint entrypoint = new DartExecutor.DartEntrypoint(appBundlePath, ENGINE_GROUP_ENTRYPOINT_LIBRARY, ENGINE_GROUP_ENTRYPOINT_FUNCTION);
+
+        // Spawn engine from the host app's group (shares its Dart isolate group & snapshot)
+        FlutterEngineGroup.Options options = new FlutterEngineGroup.Options(context)
+                .setDartEntrypoint(entrypoint)
+                .setDartEntrypointArgs(Collections.singletonList(String.valueOf(isolateCallbackId)));
+
+        // Spawn and run engine (when it's done it will invoke a method call to "notificationCallbackReady")
+        mBackgroundFlutterEngine = mEngineGroup.createAndRunEngine(options);
+
+        // Initialize a dedicate channel for communicating with the background isolate
+        initializeBackgroundMethodChannel(mBackgroundFlutterEngine.getDartExecutor());
+    }
+
+    public Map<String, Object> getLaneMetrics() {
+        // Per-lane delivery counts & latency percentiles
+        return mLaneMetrics.getMetrics();
+    }
+
+    public void resetLaneMetrics() {
+        // Drop per-lane delivery metrics
+        mLaneMetrics.reset();
+    }
+
+    public Map<String, Object> getStats() {
+        // Prepare stats map
+        Map<String, Object> stats = new HashMap<>();
+
+        // Populate start mode, cold start latency & RSS
+        stats.put("mode", mStartMode);
+        stats.put("running", mIsIsolateRunning);
+        stats.put("coldStartMs", mColdStartMs);
+        stats.put("rssBeforeStartKb", mRssBeforeStartKb);
+        stats.put("rssAfterStartKb", mRssAfterStartKb);
+        stats.put("startCount", mStartCount);
+        stats.put("idleShutdownCount", mIdleShutdownCount);
+        stats.put("inFlightCount", mInFlightCount);
+        stats.put("sentCount", mSentCount);
+        stats.put("acknowledgedCount", mAcknowledgedCount);
+        stats.put("handlerErrorCount", mHandlerErrorCount);
+        stats.put("unacknowledgedCount", mUnacknowledgedCount);
+        stats.put("ackTimeoutCount", mAckTimeoutCount);
+
+        // All done
+        return stats;
+    }
+
+    private static long getRssKb() {
+        try {
+            // Read resident set size of this process
+            BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"));
+
+            try {
+                String line;
+
+                // Look for VmRSS line (value in kB)
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("VmRSS:")) {
+                        return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to read process RSS: " + e.getMessage(), e);
+        }
+
+        // Unknown
+        return 0;
     }
 
     public static void persistCallbackHandleIds(Context context, long isolateCallbackId, long notificationHandlerCallbackId) {
         // Get shared preferences handle
         SharedPreferences sharedPreferences = PushyPersistence.getSettings(context);
 
-        // Store callback handle IDs
-        sharedPreferences.edit().putLong(PushySharedPrefs.FLUTTER_ISOLATE_ID, isolateCallbackId).apply();
-        sharedPreferences.edit().putLong(PushySharedPrefs.FLUTTER_NOTIFICATION_HANDLER_ID, notificationHandlerCallbackId).apply();
+        // Store callback handle IDs (atomically)
+        sharedPreferences.edit()
+                .putLong(PushySharedPrefs.FLUTTER_ISOLATE_ID, isolateCallbackId)
+                .putLong(PushySharedPrefs.FLUTTER_NOTIFICATION_HANDLER_ID, notificationHandlerCallbackId)
+                .apply();
     }
 
     private void initializeBackgroundMethodChannel(BinaryMessenger isolate) {
         // Initialize a dedicated channel for communicating with the background isolate
-        mBackgroundChannel = new MethodChannel(isolate, PushyChannels.BACKGROUND_CHANNEL, JSONMethodCodec.INSTANCE);
+        mBackgroundChannel = new MethodChannel(isolate, PushyChannels.BACKGROUND_CHANNEL);
 
         // Handle method calls in this class (onMethodCall())
         mBackgroundChannel.setMethodCallHandler(this);
@@ -143,19 +351,251 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
         // Isolate reported it is running
         mIsIsolateRunning = true;
 
+        // Fresh isolate: every journaled notification is unacknowledged (redelivered from the start)
+        PushyPersistence.getPendingNotificationJournal(mContext).resetPending();
+        mInFlightCount = 0;
+
+        // Replies from a previous isolate will never arrive
+        mAckTimeoutHandler.removeCallbacksAndMessages(null);
+
+        // Record cold start latency & memory cost
+        mColdStartMs = SystemClock.elapsedRealtime() - mStartTimestamp;
+        mRssAfterStartKb = getRssKb();
+
+        // Report them
+        Log.d(PushyLogging.TAG, "Background isolate ready in " + mColdStartMs + "ms (mode: " + mStartMode + ", RSS: " + mRssBeforeStartKb + "kB -> " + mRssAfterStartKb + "kB)");
+
         // Attempt to deliver any pending notifications (from when activity was closed)
         PushyPlugin.deliverPendingNotifications(mContext);
+
+        // Shut down if no notifications arrive for a while
+        scheduleIdleShutdown(mContext);
+    }
+
+    private void scheduleIdleShutdown(Context context) {
+        // Restart idle countdown
+        mIdleHandler.removeCallbacksAndMessages(null);
+
+        // Get idle timeout (0 = keep engine alive for the lifetime of the process)
+        int idleTimeoutSeconds = PushyPersistence.getSettings(context).getInt(PushySharedPrefs.FLUTTER_ENGINE_IDLE_TIMEOUT, 0);
+
+        // Disabled or engine not running?
+        if (idleTimeoutSeconds <= 0 || mBackgroundFlutterEngine == null) {
+            return;
+        }
+
+        // Destroy engine once idle timeout elapses
+        mIdleHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                shutdownBackgroundIsolate();
+            }
+        }, idleTimeoutSeconds * 1000L);
+    }
+
+    private void shutdownBackgroundIsolate() {
+        // Engine still starting (or already destroyed)?
+        if (mBackgroundFlutterEngine == null || !mIsIsolateRunning) {
+            return;
+        }
+
+        // Notifications still awaiting acknowledgement? Check again later
+        if (mInFlightCount > 0) {
+            scheduleIdleShutdown(mContext);
+            return;
+        }
+
+        // Log idle shutdown
+        Log.d(PushyLogging.TAG, "Shutting down idle background isolate");
+
+        // New notifications are persisted and trigger a lazy restart from now on
+        mIsIsolateRunning = false;
+
+        // Stop listening for background channel calls
+        mBackgroundChannel.setMethodCallHandler(null);
+        mBackgroundChannel = null;
+
+        // Release the engine (and its isolate, heap & native resources)
+        mBackgroundFlutterEngine.destroy();
+        mBackgroundFlutterEngine = null;
+
+        // Count idle shutdowns
+        mIdleShutdownCount++;
+    }
+
+    public void deliverPendingNotifications(final Context context) {
+        // Isolate not ready to handle notifications yet?
+        if (!mIsIsolateRunning || mBackgroundChannel == null) {
+            return;
+        }
+
+        // Free slots in the delivery window
+        int available = PushyPersistence.getSettings(context).getInt(PushySharedPrefs.FLUTTER_DELIVERY_WINDOW, DEFAULT_DELIVERY_WINDOW) - mInFlightCount;
+
+        // Window full? Resume when acknowledgements arrive
+        if (available <= 0) {
+            return;
+        }
+
+        // Records not yet handed to this isolate
+        final List<PushyNotificationJournal.Record> records;
+
+        try {
+            // Read next unacknowledged notifications, high priority lane first (they stay in the journal until acknowledged)
+            records = PushyPersistence.getPendingNotificationJournal(context).readPending(available);
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to read pending notifications: " + e.getMessage(), e);
+            return;
+        }
+
+        // Nothing to deliver?
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // Collect sequence numbers & notifications
+        final List<Long> sequences = new ArrayList<>(records.size());
+        List<JSONObject> notifications = new ArrayList<>(records.size());
+
+        for (PushyNotificationJournal.Record record : records) {
+            sequences.add(record.mSequence);
+            notifications.add(record.mNotification);
+        }
+
+        // Mark them as in flight
+        mInFlightCount += sequences.size();
+        mSentCount += sequences.size();
+
+        // Settled once: by Dart's reply or by the ack timeout, whichever comes first
+        final AtomicBoolean settled = new AtomicBoolean();
+
+        // Isolate hung, threw before replying or the reply got lost? Don't hold the window (and idle shutdown) forever
+        final Runnable ackTimeout = new Runnable() {
+            @Override
+            public void run() {
+                if (settled.compareAndSet(false, true)) {
+                    // Log timeout
+                    Log.e(PushyLogging.TAG, "Background isolate did not acknowledge " + sequences.size() + " notification(s) within " + ACK_TIMEOUT_MS + "ms");
+
+                    // Release them for redelivery (next delivery or isolate restart)
+                    mAckTimeoutCount += sequences.size();
+                    onNotificationsUnacknowledged(sequences, context);
+                }
+            }
+        };
+
+        mAckTimeoutHandler.postDelayed(ackTimeout, ACK_TIMEOUT_MS);
+
+        // Hand them to the Dart notification handler, acknowledged through the result callback
+        invokeDartNotificationHandler(notifications, sequences, context, new Result() {
+            @Override
+            public void success(Object handled) {
+                // Timed out already (released for redelivery)?
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+
+                // Stop ack timer
+                mAckTimeoutHandler.removeCallbacks(ackTimeout);
+
+                // Handler ran (false if it threw), release from journal
+                onNotificationsAcknowledged(records, Boolean.TRUE.equals(handled), context);
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                // Timed out already (released for redelivery)?
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+
+                // Stop ack timer
+                mAckTimeoutHandler.removeCallbacks(ackTimeout);
+
+                // Log error to logcat (e.g. notification handler callback not found, notifications stay journaled)
+                Log.e(PushyLogging.TAG, "Background isolate failed to handle notifications: " + errorMessage);
+                onNotificationsUnacknowledged(sequences, context);
+            }
+
+            @Override
+            public void notImplemented() {
+                // Timed out already (released for redelivery)?
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+
+                // Stop ack timer
+                mAckTimeoutHandler.removeCallbacks(ackTimeout);
+
+                // Isolate went away (notifications stay journaled)
+                onNotificationsUnacknowledged(sequences, context);
+            }
+        });
+    }
+
+    private void onNotificationsAcknowledged(List<PushyNotificationJournal.Record> records, boolean handled, Context context) {
+        // Free delivery window slots
+        mInFlightCount = Math.max(0, mInFlightCount - records.size());
+        mAcknowledgedCount += records.size();
+
+        // Count handler errors
+        if (!handled) {
+            mHandlerErrorCount += records.size();
+        }
+
+        try {
+            // Release acknowledged records (in place, so out-of-order acks also survive process death)
+            List<Long> sequences = new ArrayList<>(records.size());
+
+            for (PushyNotificationJournal.Record record : records) {
+                sequences.add(record.mSequence);
+
+                // Record receipt-to-acknowledgement latency for the record's lane
+                mLaneMetrics.record(record.mPriority, record.mReceivedAt);
+            }
+
+            // One journal write & fsync for the whole batch
+            PushyPersistence.getPendingNotificationJournal(context).acknowledge(sequences);
+        }
+        catch (IOException e) {
+            // Log error to logcat (notifications are redelivered on restart)
+            Log.e(PushyLogging.TAG, "Failed to acknowledge notifications: " + e.getMessage(), e);
+        }
+
+        // Send next notifications
+        deliverPendingNotifications(context);
+    }
+
+    private void onNotificationsUnacknowledged(List<Long> sequences, Context context) {
+        // Free delivery window slots
+        mInFlightCount = Math.max(0, mInFlightCount - sequences.size());
+        mUnacknowledgedCount += sequences.size();
+
+        // Records stay in the journal, handed out again on the next delivery (or isolate restart)
+        PushyPersistence.getPendingNotificationJournal(context).resetPending(sequences);
     }
 
-    public void invokeDartNotificationHandler(JSONObject notification, Context context) {
+    private void invokeDartNotificationHandler(List<JSONObject> notifications, List<Long> sequences, Context context, Result ack) {
         // Get shared preferences handle
         SharedPreferences sharedPreferences = PushyPersistence.getSettings(context);
 
         // Retrieve stored notification handler callback handle ID
         long notificationHandlerCallbackId = sharedPreferences.getLong(PushySharedPrefs.FLUTTER_NOTIFICATION_HANDLER_ID, 0);
 
-        // Pass notification (as JSON string) to notification handler through background channel
-        mBackgroundChannel.invokeMethod("onNotificationReceived", new Object[] {notificationHandlerCallbackId, notification.toString()},null);
+        // Restart idle countdown
+        scheduleIdleShutdown(context);
+
+        // Single notification?
+        if (notifications.size() == 1) {
+            // Pass notification (as native map) & its sequence number to notification handler through background channel
+            mBackgroundChannel.invokeMethod("onNotificationReceived", Arrays.asList(notificationHandlerCallbackId, PushyPayloads.encode(notifications.get(0), context), sequences), ack);
+            return;
+        }
+
+        // Pass all notifications to notification handler in a single channel message
+        mBackgroundChannel.invokeMethod("onNotificationsReceived", Arrays.asList(notificationHandlerCallbackId, PushyPayloads.encode(notifications, context), sequences), ack);
     }
 
     private static boolean isInitialized() {
@@ -163,7 +603,7 @@ public class PushyFlutterBackgroundExecutor implements MethodCallHandler {
         return mInstance != null;
     }
 
-    public static PushyFlutterBackgroundExecutor getSingletonInstance() {
+    public static synchronized PushyFlutterBackgroundExecutor getSingletonInstance() {
         // Check for existing instance
         if (mInstance != null) {
             return mInstance;
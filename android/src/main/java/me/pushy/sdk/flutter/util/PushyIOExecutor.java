@@ -0,0 +1,294 @@
+package me.pushy.sdk.flutter.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.pushy.sdk.config.PushyLogging;
+
+public class PushyIOExecutor {
+    public static final int DEFAULT_CONCURRENCY = 2;
+    public static final long DEFAULT_TIMEOUT_MS = 60 * 1000;
+
+    private static final long KEEP_ALIVE_MS = 30 * 1000;
+    private static final String THREAD_NAME_PREFIX = "PushyIO-";
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Handler mTimeoutHandler;
+    private final Set<PendingCall> mPendingCalls = new HashSet<>();
+
+    private volatile long mTimeoutMs = DEFAULT_TIMEOUT_MS;
+
+    private final AtomicLong mSubmittedCount = new AtomicLong();
+    private final AtomicLong mCompletedCount = new AtomicLong();
+    private final AtomicLong mFailedCount = new AtomicLong();
+    private final AtomicLong mTimedOutCount = new AtomicLong();
+    private final AtomicLong mCancelledCount = new AtomicLong();
+    private final AtomicLong mTotalWaitMs = new AtomicLong();
+    private final AtomicLong mMaxWaitMs = new AtomicLong();
+
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    public interface Callback {
+        void onSuccess(Object value);
+
+        void onError(String message);
+    }
+
+    public PushyIOExecutor() {
+        // Named, background-priority worker threads
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger mThreadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Network I/O should never compete with the UI thread
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                        // Run the worker loop
+                        runnable.run();
+                    }
+                }, THREAD_NAME_PREFIX + mThreadCount.incrementAndGet());
+            }
+        };
+
+        // Bounded pool with an unbounded FIFO queue (calls wait for a free worker)
+        mExecutor = new ThreadPoolExecutor(DEFAULT_CONCURRENCY, DEFAULT_CONCURRENCY, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+
+        // Release idle workers so the pool costs nothing between bursts
+        mExecutor.allowCoreThreadTimeOut(true);
+
+        // Timeouts are tracked on the main looper (no extra timer thread)
+        mTimeoutHandler = new Handler(Looper.getMainLooper());
+    }
+
+    public void execute(String name, Task task, Callback callback) {
+        // Wrap the task so we can track wait time, timeout and cancellation
+        final PendingCall call = new PendingCall(name, task, callback);
+
+        // Keep track of it until it settles
+        synchronized (mPendingCalls) {
+            mPendingCalls.add(call);
+        }
+
+        // Update stats
+        mSubmittedCount.incrementAndGet();
+
+        // Enforce per-call timeout (measured from submission, including queue wait)
+        if (mTimeoutMs > 0) {
+            mTimeoutHandler.postDelayed(call.mTimeoutRunnable, mTimeoutMs);
+        }
+
+        try {
+            // Queue for execution
+            call.mFuture = mExecutor.submit(call);
+        }
+        catch (RejectedExecutionException e) {
+            // Executor was shut down (engine detached)
+            call.cancel();
+        }
+    }
+
+    public void setConcurrency(int concurrency) {
+        // Ignore invalid values
+        if (concurrency < 1) {
+            return;
+        }
+
+        // Growing? Raise the maximum first (core may never exceed max)
+        if (concurrency > mExecutor.getMaximumPoolSize()) {
+            mExecutor.setMaximumPoolSize(concurrency);
+            mExecutor.setCorePoolSize(concurrency);
+        }
+        else {
+            mExecutor.setCorePoolSize(concurrency);
+            mExecutor.setMaximumPoolSize(concurrency);
+        }
+    }
+
+    public void setTimeout(long timeoutMs) {
+        // Zero or less disables the timeout
+        mTimeoutMs = timeoutMs;
+    }
+
+    public void shutdown() {
+        // Copy pending calls to avoid concurrent modification
+        Set<PendingCall> pendingCalls;
+
+        synchronized (mPendingCalls) {
+            pendingCalls = new HashSet<>(mPendingCalls);
+        }
+
+        // Cancel everything still queued or in flight
+        for (PendingCall call : pendingCalls) {
+            call.cancel();
+        }
+
+        // Stop accepting work and interrupt workers
+        mExecutor.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        // Prepare stats map
+        Map<String, Object> stats = new HashMap<>();
+
+        // Calls that started running (used for average wait time)
+        long started = mCompletedCount.get() + mFailedCount.get();
+
+        // Populate current pool state and counters
+        stats.put("concurrency", mExecutor.getMaximumPoolSize());
+        stats.put("timeoutMs", mTimeoutMs);
+        stats.put("queueDepth", mExecutor.getQueue().size());
+        stats.put("activeCount", mExecutor.getActiveCount());
+        stats.put("submittedCount", mSubmittedCount.get());
+        stats.put("completedCount", mCompletedCount.get());
+        stats.put("failedCount", mFailedCount.get());
+        stats.put("timedOutCount", mTimedOutCount.get());
+        stats.put("cancelledCount", mCancelledCount.get());
+        stats.put("averageWaitMs", started > 0 ? mTotalWaitMs.get() / started : 0);
+        stats.put("maxWaitMs", mMaxWaitMs.get());
+
+        // All done
+        return stats;
+    }
+
+    private void recordWaitTime(long waitMs) {
+        // Accumulate total wait time
+        mTotalWaitMs.addAndGet(waitMs);
+
+        // Update max wait time
+        long max;
+
+        do {
+            max = mMaxWaitMs.get();
+        } while (waitMs > max && !mMaxWaitMs.compareAndSet(max, waitMs));
+    }
+
+    private class PendingCall implements Runnable {
+        private final String mName;
+        private final Task mTask;
+        private final Callback mCallback;
+        private final long mEnqueuedAt;
+        private final AtomicBoolean mSettled = new AtomicBoolean();
+
+        private volatile Future<?> mFuture;
+
+        private final Runnable mTimeoutRunnable = new Runnable() {
+            @Override
+            public void run() {
+                // Already completed?
+                if (!settle()) {
+                    return;
+                }
+
+                // Interrupt the worker (the blocking call may or may not honor it)
+                if (mFuture != null) {
+                    mFuture.cancel(true);
+                }
+
+                // Update stats
+                mTimedOutCount.incrementAndGet();
+
+                // Log timeout
+                Log.e(PushyLogging.TAG, mName + " timed out after " + mTimeoutMs + "ms");
+
+                // Reject the call
+                mCallback.onError(mName + " timed out after " + mTimeoutMs + "ms");
+            }
+        };
+
+        PendingCall(String name, Task task, Callback callback) {
+            this.mName = name;
+            this.mTask = task;
+            this.mCallback = callback;
+            this.mEnqueuedAt = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void run() {
+            // Timed out or cancelled while queued?
+            if (mSettled.get()) {
+                return;
+            }
+
+            // Record time spent waiting for a worker
+            recordWaitTime(SystemClock.elapsedRealtime() - mEnqueuedAt);
+
+            try {
+                // Run the blocking call
+                Object value = mTask.run();
+
+                // Update stats
+                mCompletedCount.incrementAndGet();
+
+                // Resolve (unless timed out / cancelled meanwhile)
+                if (settle()) {
+                    mCallback.onSuccess(value);
+                }
+            }
+            catch (Exception exc) {
+                // Update stats
+                mFailedCount.incrementAndGet();
+
+                // Reject (unless timed out / cancelled meanwhile)
+                if (settle()) {
+                    mCallback.onError(exc.getMessage());
+                }
+            }
+        }
+
+        void cancel() {
+            // Already completed?
+            if (!settle()) {
+                return;
+            }
+
+            // Interrupt the worker / dequeue the task
+            if (mFuture != null) {
+                mFuture.cancel(true);
+            }
+
+            // Update stats (no callback, the engine is gone)
+            mCancelledCount.incrementAndGet();
+        }
+
+        private boolean settle() {
+            // Only the first outcome wins
+            if (!mSettled.compareAndSet(false, true)) {
+                return false;
+            }
+
+            // Stop the timeout timer
+            mTimeoutHandler.removeCallbacks(mTimeoutRunnable);
+
+            // No longer pending
+            synchronized (mPendingCalls) {
+                mPendingCalls.remove(this);
+            }
+
+            // First outcome
+            return true;
+        }
+    }
+}
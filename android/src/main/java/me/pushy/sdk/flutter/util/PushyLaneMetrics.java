@@ -0,0 +1,95 @@
+package me.pushy.sdk.flutter.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Delivery latency per priority lane (receipt until the Dart handler acknowledged it)
+public class PushyLaneMetrics {
+    public static final String LANE_HIGH = "high";
+    public static final String LANE_NORMAL = "normal";
+    public static final String LANE_LOW = "low";
+
+    // Log-scale latency buckets in milliseconds
+    private static final int BUCKET_COUNT = 24;
+
+    private final Map<String, LaneMetrics> mLanes = new HashMap<>();
+
+    public static String getLane(int priority) {
+        // Positive priorities jump the queue, negative ones are deferred
+        if (priority > 0) {
+            return LANE_HIGH;
+        }
+        else if (priority < 0) {
+            return LANE_LOW;
+        }
+
+        // Default lane
+        return LANE_NORMAL;
+    }
+
+    public synchronized void record(int priority, long receivedAt) {
+        // Get lane metrics
+        LaneMetrics metrics = getLaneMetrics(getLane(priority));
+
+        // Count delivery
+        metrics.mCount++;
+
+        // Receipt time unknown (journaled by a previous process)?
+        if (receivedAt <= 0) {
+            return;
+        }
+
+        // Add latency to histogram
+        metrics.mLatency.record(Math.max(0, System.currentTimeMillis() - receivedAt));
+    }
+
+    public synchronized Map<String, Object> getMetrics() {
+        // Prepare metrics map (keyed by lane)
+        Map<String, Object> metrics = new HashMap<>();
+
+        // Traverse lanes
+        for (Map.Entry<String, LaneMetrics> entry : mLanes.entrySet()) {
+            LaneMetrics lane = entry.getValue();
+
+            // Populate counters & latency percentiles
+            Map<String, Object> values = new HashMap<>();
+            values.put("count", lane.mCount);
+            values.put("p50Ms", lane.mLatency.getPercentile(0.50));
+            values.put("p95Ms", lane.mLatency.getPercentile(0.95));
+            values.put("p99Ms", lane.mLatency.getPercentile(0.99));
+            values.put("maxMs", lane.mLatency.getMax());
+
+            // Add to metrics map
+            metrics.put(entry.getKey(), values);
+        }
+
+        // All done
+        return metrics;
+    }
+
+    public synchronized void reset() {
+        // Drop all recorded metrics
+        mLanes.clear();
+    }
+
+    private LaneMetrics getLaneMetrics(String lane) {
+        // Get existing metrics
+        LaneMetrics metrics = mLanes.get(lane);
+
+        // First delivery in this lane?
+        if (metrics == null) {
+            metrics = new LaneMetrics();
+            mLanes.put(lane, metrics);
+        }
+
+        // All done
+        return metrics;
+    }
+
+    private static class LaneMetrics {
+        long mCount;
+
+        // Deliveries with a known receipt time
+        final PushyLatencyHistogram mLatency = new PushyLatencyHistogram(BUCKET_COUNT);
+    }
+}
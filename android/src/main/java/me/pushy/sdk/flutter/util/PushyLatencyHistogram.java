@@ -0,0 +1,66 @@
+package me.pushy.sdk.flutter.util;
+
+// Log-scale latency histogram shared by the method & priority lane metrics (not thread-safe, owners synchronize)
+// Bucket i holds [2^i, 2^(i+1)) in the owner's unit (last bucket is open-ended)
+public class PushyLatencyHistogram {
+    private final long[] mBuckets;
+
+    private long mCount;
+    private long mMax;
+
+    public PushyLatencyHistogram(int bucketCount) {
+        // Preallocate buckets
+        mBuckets = new long[bucketCount];
+    }
+
+    public void record(long value) {
+        // Add to histogram
+        mBuckets[getBucket(value)]++;
+        mCount++;
+
+        // Track max value
+        mMax = Math.max(mMax, value);
+    }
+
+    public long getCount() {
+        // Recorded values
+        return mCount;
+    }
+
+    public long getMax() {
+        // Largest recorded value
+        return mMax;
+    }
+
+    public long getPercentile(double percentile) {
+        // Nothing recorded yet?
+        if (mCount == 0) {
+            return 0;
+        }
+
+        // Rank of the requested percentile
+        long rank = (long) Math.ceil(percentile * mCount);
+        long seen = 0;
+
+        // Find the bucket containing that rank
+        for (int i = 0; i < mBuckets.length; i++) {
+            seen += mBuckets[i];
+
+            // Report bucket upper bound (capped at observed max)
+            if (seen >= rank) {
+                return Math.min(1L << (i + 1), mMax);
+            }
+        }
+
+        // Unreachable
+        return mMax;
+    }
+
+    private int getBucket(long value) {
+        // Bucket index is floor(log2(value))
+        int bucket = 63 - Long.numberOfLeadingZeros(Math.max(value, 1));
+
+        // Clamp to last bucket
+        return Math.min(bucket, mBuckets.length - 1);
+    }
+}
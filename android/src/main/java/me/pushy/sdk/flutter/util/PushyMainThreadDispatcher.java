@@ -0,0 +1,294 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+import me.pushy.sdk.flutter.PushyPlugin;
+
+// Runs method results & notification events on the main thread through one shared handler
+// Work is queued in a growable ring of preallocated slots and drained in a single looper message
+// Consecutive notifications are coalesced into one list event only when batched delivery is enabled (same payload shape)
+public class PushyMainThreadDispatcher {
+    private static final int TYPE_SUCCESS = 0;
+    private static final int TYPE_ERROR = 1;
+    private static final int TYPE_NOTIFICATION = 2;
+    private static final int TYPE_RUNNABLE = 3;
+    private static final int TYPE_BACKGROUND_DELIVERY = 4;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static PushyMainThreadDispatcher mInstance;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private int[] mTypes = new int[INITIAL_CAPACITY];
+    private Object[] mTargets = new Object[INITIAL_CAPACITY];
+    private Object[] mValues = new Object[INITIAL_CAPACITY];
+    private String[] mCodes = new String[INITIAL_CAPACITY];
+    private int mHead;
+    private int mSize;
+    private boolean mDrainScheduled;
+
+    private long mEventCount;
+    private long mInlineCount;
+    private long mLooperMessageCount;
+    private long mMaxDrainSize;
+
+    // Objects allocated by the dispatcher itself (ring growth & coalesced notification lists, single events allocate nothing)
+    private long mAllocationCount;
+    private long mGrowCount;
+
+    private final Runnable mDrainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public static synchronized PushyMainThreadDispatcher getInstance() {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyMainThreadDispatcher();
+        return mInstance;
+    }
+
+    public void success(Result result, Object value) {
+        // Resolve the method on the main thread
+        dispatch(TYPE_SUCCESS, result, value, null);
+    }
+
+    public void error(Result result, String message) {
+        // Reject the method on the main thread
+        error(result, "PUSHY ERROR", message);
+    }
+
+    public void error(Result result, String code, String message) {
+        // Reject the method on the main thread (code kept in its own slot, no per-call array)
+        dispatch(TYPE_ERROR, result, message, code);
+    }
+
+    public void notification(JSONObject notification, Context context) {
+        // Deliver the notification on the main thread
+        dispatch(TYPE_NOTIFICATION, notification, context, null);
+    }
+
+    public void execute(Runnable runnable) {
+        // Run arbitrary work on the main thread
+        dispatch(TYPE_RUNNABLE, runnable, null, null);
+    }
+
+    public void deliverToBackgroundIsolate(Context context) {
+        // Deliver journaled notifications (or start the isolate) on the main thread, no Runnable per event
+        dispatch(TYPE_BACKGROUND_DELIVERY, context, null, null);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        // Prepare stats map
+        Map<String, Object> stats = new HashMap<>();
+
+        // Populate event & looper message counters
+        stats.put("eventCount", mEventCount);
+        stats.put("inlineCount", mInlineCount);
+        stats.put("looperMessageCount", mLooperMessageCount);
+        stats.put("maxDrainSize", mMaxDrainSize);
+        stats.put("queueCapacity", mTypes.length);
+
+        // Looper messages posted per event (a Handler + Runnable each before)
+        stats.put("messagesPerEvent", mEventCount == 0 ? 0 : (double) mLooperMessageCount / mEventCount);
+
+        // Dispatcher allocations (a Handler + Runnable + Message per event before)
+        stats.put("allocationCount", mAllocationCount);
+        stats.put("allocationsPerEvent", mEventCount == 0 ? 0 : (double) mAllocationCount / mEventCount);
+        stats.put("growCount", mGrowCount);
+
+        // All done
+        return stats;
+    }
+
+    private void dispatch(int type, Object target, Object value, String code) {
+        synchronized (this) {
+            // Count event
+            mEventCount++;
+
+            // Already on the main thread with nothing queued ahead? Run inline (no post)
+            if (mSize == 0 && Looper.myLooper() == Looper.getMainLooper()) {
+                mInlineCount++;
+            }
+            else {
+                // Queue it
+                enqueue(type, target, value, code);
+
+                // Drain message already pending?
+                if (mDrainScheduled) {
+                    return;
+                }
+
+                // Post a single drain message for everything queued until it runs
+                mDrainScheduled = true;
+                mLooperMessageCount++;
+                mHandler.post(mDrainRunnable);
+                return;
+            }
+        }
+
+        // Run inline (outside the lock)
+        run(type, target, value, code);
+    }
+
+    private void enqueue(int type, Object target, Object value, String code) {
+        // Ring full? Double its capacity
+        if (mSize == mTypes.length) {
+            grow();
+        }
+
+        // Write into next free slot
+        int index = (mHead + mSize) % mTypes.length;
+        mTypes[index] = type;
+        mTargets[index] = target;
+        mValues[index] = value;
+        mCodes[index] = code;
+        mSize++;
+    }
+
+    private void grow() {
+        // Allocate larger arrays
+        int capacity = mTypes.length * 2;
+        int[] types = new int[capacity];
+        Object[] targets = new Object[capacity];
+        Object[] values = new Object[capacity];
+        String[] codes = new String[capacity];
+
+        // Count the four arrays
+        mAllocationCount += 4;
+        mGrowCount++;
+
+        // Copy queued slots in order
+        for (int i = 0; i < mSize; i++) {
+            int index = (mHead + i) % mTypes.length;
+            types[i] = mTypes[index];
+            targets[i] = mTargets[index];
+            values[i] = mValues[index];
+            codes[i] = mCodes[index];
+        }
+
+        // Swap in
+        mTypes = types;
+        mTargets = targets;
+        mValues = values;
+        mCodes = codes;
+        mHead = 0;
+    }
+
+    private void drain() {
+        // Number of events handled by this looper message
+        int drained = 0;
+
+        while (true) {
+            int type;
+            Object target;
+            Object value;
+            String code;
+            List<JSONObject> notifications = null;
+
+            synchronized (this) {
+                // Queue empty? Done
+                if (mSize == 0) {
+                    mDrainScheduled = false;
+                    mMaxDrainSize = Math.max(mMaxDrainSize, drained);
+                    return;
+                }
+
+                // Take the oldest slot
+                type = mTypes[mHead];
+                target = mTargets[mHead];
+                value = mValues[mHead];
+                code = mCodes[mHead];
+                poll();
+                drained++;
+
+                // Consecutive notifications with batched delivery enabled? Coalesce them into one delivery
+                // (otherwise each stays a single-notification event, the payload shape listeners expect)
+                if (type == TYPE_NOTIFICATION && mSize > 0 && mTypes[mHead] == TYPE_NOTIFICATION && PushyPersistence.getNotificationBatchInterval((Context) value) > 0) {
+                    // Size the list up front (one list + one backing array, never regrown)
+                    notifications = new ArrayList<>(1 + countQueuedNotifications());
+                    mAllocationCount += 2;
+                    notifications.add((JSONObject) target);
+
+                    while (mSize > 0 && mTypes[mHead] == TYPE_NOTIFICATION) {
+                        notifications.add((JSONObject) mTargets[mHead]);
+                        poll();
+                        drained++;
+                    }
+                }
+            }
+
+            // Deliver coalesced notifications
+            if (notifications != null) {
+                PushyPlugin.dispatchNotifications(notifications, (Context) value);
+                continue;
+            }
+
+            // Resolve / reject / run
+            run(type, target, value, code);
+        }
+    }
+
+    private int countQueuedNotifications() {
+        // Consecutive notification slots at the head of the queue
+        int count = 0;
+
+        while (count < mSize && mTypes[(mHead + count) % mTypes.length] == TYPE_NOTIFICATION) {
+            count++;
+        }
+
+        // All done
+        return count;
+    }
+
+    private void poll() {
+        // Release references held by the head slot
+        mTargets[mHead] = null;
+        mValues[mHead] = null;
+        mCodes[mHead] = null;
+
+        // Advance head
+        mHead = (mHead + 1) % mTypes.length;
+        mSize--;
+    }
+
+    private static void run(int type, Object target, Object value, String code) {
+        // Resolve the method
+        if (type == TYPE_SUCCESS) {
+            ((Result) target).success(value);
+        }
+        // Reject the method
+        else if (type == TYPE_ERROR) {
+            ((Result) target).error(code, (String) value, null);
+        }
+        // Deliver single notification (no wrapper list)
+        else if (type == TYPE_NOTIFICATION) {
+            PushyPlugin.dispatchNotification((JSONObject) target, (Context) value);
+        }
+        // Run arbitrary work
+        else if (type == TYPE_RUNNABLE) {
+            ((Runnable) target).run();
+        }
+        // Deliver journaled notifications to the background isolate
+        else if (type == TYPE_BACKGROUND_DELIVERY) {
+            PushyPlugin.deliverToBackgroundIsolate((Context) target);
+        }
+    }
+}
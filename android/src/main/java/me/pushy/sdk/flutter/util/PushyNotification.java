@@ -6,11 +6,58 @@ import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.res.Resources;
+import android.media.RingtoneManager;
+import android.net.Uri;
 
+import androidx.core.app.NotificationCompat;
+
+import me.pushy.sdk.Pushy;
+import me.pushy.sdk.config.PushyNotificationChannel;
 import me.pushy.sdk.flutter.config.PushyIntentExtras;
 
 public class PushyNotification {
+    private static final long[] VIBRATION_PATTERN = new long[]{0, 400, 250, 400};
+
+    private static volatile int mNotificationIcon;
+    private static volatile Uri mNotificationSound;
+    private static volatile Intent mLaunchIntentTemplate;
+    private static volatile boolean mNotificationChannelConfigured;
+
+    public static NotificationCompat.Builder createNotificationBuilder(Context context) {
+        // Prepare a notification with vibration, sound and lights (from cached resources)
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, PushyNotificationChannel.CHANNEL_ID)
+                .setSmallIcon(getNotificationIcon(context))
+                .setAutoCancel(true)
+                .setVibrate(VIBRATION_PATTERN)
+                .setSound(getNotificationSound());
+
+        // Automatically configure a Notification Channel for devices running Android O+ (only once per process)
+        if (!mNotificationChannelConfigured) {
+            Pushy.setNotificationChannel(builder, context);
+            mNotificationChannelConfigured = true;
+        }
+
+        // All done
+        return builder;
+    }
+
+    public static void invalidateNotificationIcon() {
+        // Resolve icon again on next notification
+        mNotificationIcon = 0;
+    }
+
     public static int getNotificationIcon(Context context) {
+        // Already resolved?
+        if (mNotificationIcon != 0) {
+            return mNotificationIcon;
+        }
+
+        // Resolve icon (package manager IPC & resource lookups) and cache it
+        mNotificationIcon = resolveNotificationIcon(context);
+        return mNotificationIcon;
+    }
+
+    private static int resolveNotificationIcon(Context context) {
         try {
             // Try to query for app metadata
             ApplicationInfo app = context.getPackageManager().getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
@@ -62,13 +109,37 @@ public class PushyNotification {
         return android.R.drawable.ic_dialog_info;
     }
 
-    public static PendingIntent getMainActivityPendingIntent(Context context, String payload) {
-        // Get launcher activity intent
+    private static Uri getNotificationSound() {
+        // Cache default notification sound URI
+        if (mNotificationSound == null) {
+            mNotificationSound = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
+        }
+
+        // All done
+        return mNotificationSound;
+    }
+
+    private static Intent getLaunchIntentTemplate(Context context) {
+        // Already resolved?
+        if (mLaunchIntentTemplate != null) {
+            return mLaunchIntentTemplate;
+        }
+
+        // Get launcher activity intent (package manager IPC)
         Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(context.getApplicationContext().getPackageName());
 
         // Make sure to update the activity if it exists
         launchIntent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
 
+        // Cache it
+        mLaunchIntentTemplate = launchIntent;
+        return launchIntent;
+    }
+
+    public static PendingIntent getMainActivityPendingIntent(Context context, String payload) {
+        // Copy cached launcher activity intent
+        Intent launchIntent = new Intent(getLaunchIntentTemplate(context));
+
         // Pass payload data into PendingIntent
         launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_CLICKED, true);
         launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD, payload);
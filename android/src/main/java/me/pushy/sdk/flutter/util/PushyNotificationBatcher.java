@@ -0,0 +1,142 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.PushyPlugin;
+
+// Holds back the handoff to Dart for the batch interval (notifications are journaled right away, so a process kill loses nothing)
+public class PushyNotificationBatcher {
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static PushyNotificationBatcher mInstance;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    // Journal reads & writes run off the main thread
+    private final PushyIOExecutor mIOExecutor = new PushyIOExecutor();
+
+    private Context mContext;
+    private boolean mFlushScheduled;
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public void enqueue(JSONObject notification, Context context) {
+        // Store notification JSON in journal on the calling thread first (survives until delivered / acknowledged)
+        PushyPersistence.persistNotification(notification, context);
+
+        // Deliver along with everything else journaled within the batch interval
+        schedule(context);
+    }
+
+    public void schedule(Context context) {
+        synchronized (this) {
+            // Store context for later
+            mContext = context;
+
+            // Flush already scheduled?
+            if (mFlushScheduled) {
+                return;
+            }
+
+            // Schedule flush
+            mFlushScheduled = true;
+        }
+
+        // Hand everything journaled within the batch interval to Dart in one go
+        mHandler.postDelayed(mFlushRunnable, PushyPersistence.getNotificationBatchInterval(context));
+    }
+
+    private void flush() {
+        // Context to deliver with
+        final Context context;
+
+        synchronized (this) {
+            // Take context & reset state
+            context = mContext;
+            mFlushScheduled = false;
+        }
+
+        // Collected journaled notifications (filled by the task, handed to the callback without an unchecked cast)
+        final List<JSONObject> notifications = new ArrayList<>();
+
+        // Read the journal in the background
+        mIOExecutor.execute("notificationBatch", new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // No foreground listener? Background isolate pulls journaled notifications until Dart acknowledges them
+                if (!PushyPlugin.isForegroundListenerActive()) {
+                    return null;
+                }
+
+                // Drain journal in priority order (released as they're read, re-journaled by the plugin if the listener went away)
+                PushyPersistence.getPendingNotificationJournal(context).drain(new PushyNotificationJournal.Reader() {
+                    @Override
+                    public void onNotification(JSONObject notification) {
+                        notifications.add(notification);
+                    }
+                });
+
+                // All done
+                return notifications;
+            }
+        }, new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Foreground delivery (null result means the background isolate pulls them instead)
+                final List<JSONObject> result = value != null ? notifications : null;
+
+                // Hand off to Dart on the main thread
+                PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver(result, context);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                // Log error to logcat (notifications stay journaled)
+                Log.e(PushyLogging.TAG, "Failed to read batched notifications: " + message);
+            }
+        });
+    }
+
+    private static void deliver(List<JSONObject> notifications, Context context) {
+        // Background delivery? Send journaled notifications within the delivery window (or start the isolate)
+        if (notifications == null) {
+            PushyPlugin.deliverToBackgroundIsolate(context);
+            return;
+        }
+
+        // Deliver in chunks to keep channel messages bounded
+        for (int i = 0; i < notifications.size(); i += MAX_BATCH_SIZE) {
+            PushyPlugin.dispatchNotifications(notifications.subList(i, Math.min(i + MAX_BATCH_SIZE, notifications.size())), context);
+        }
+    }
+
+    public static synchronized PushyNotificationBatcher getSingletonInstance() {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyNotificationBatcher();
+        return mInstance;
+    }
+}
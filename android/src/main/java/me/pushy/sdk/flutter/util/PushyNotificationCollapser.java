@@ -0,0 +1,333 @@
+package me.pushy.sdk.flutter.util;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Process-wide (shared by all engines), so child IDs and rate shaping don't reset per engine
+public class PushyNotificationCollapser {
+    public static final String DEFAULT_GROUP = "me.pushy.sdk.flutter.NOTIFICATIONS";
+
+    // Stay under the system's per-app notification enqueue rate limit (~5/sec), across all groups
+    private static final long MIN_POST_INTERVAL_MS = 250;
+
+    // Tags keep our IDs apart from untagged notifications (e.g. the plugin's text.hashCode() IDs)
+    private static final String CHILD_TAG = "me.pushy.sdk.flutter.CHILD";
+    private static final String SUMMARY_TAG = "me.pushy.sdk.flutter.SUMMARY";
+
+    // InboxStyle displays a limited number of lines
+    private static final int MAX_SUMMARY_LINES = 7;
+
+    // Child notification IDs (under CHILD_TAG), seeded from the clock so a restarted process doesn't overwrite earlier bursts
+    private static final AtomicInteger mNextChildId = new AtomicInteger((int) (System.currentTimeMillis() / 1000));
+
+    private static PushyNotificationCollapser mInstance;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Group> mGroups = new HashMap<>();
+
+    // Notifications waiting for their turn (one post per MIN_POST_INTERVAL_MS)
+    private final LinkedList<Post> mPosts = new LinkedList<>();
+
+    private long mWindowMs;
+    private long mLastPostTimestamp;
+    private boolean mPostScheduled;
+
+    private final Runnable mPostRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Interval elapsed
+            mPostScheduled = false;
+            postNext();
+        }
+    };
+
+    public static synchronized PushyNotificationCollapser getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyNotificationCollapser(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyNotificationCollapser(Context context) {
+        // Store context for later
+        mContext = context;
+    }
+
+    public void setWindow(long windowMs) {
+        // Zero disables collapsing
+        mWindowMs = Math.max(0, windowMs);
+    }
+
+    public boolean isEnabled() {
+        // Collapsing window configured?
+        return mWindowMs > 0;
+    }
+
+    public void notify(String title, String text, String payload, String groupKey) {
+        // Get group state
+        Group group = getGroup(groupKey != null ? groupKey : DEFAULT_GROUP);
+
+        // Current time
+        long now = SystemClock.elapsedRealtime();
+
+        // Quiet for longer than the window? Start a new burst
+        if (!group.mFlushScheduled && now - group.mLastReceivedTimestamp > mWindowMs) {
+            group.mBurstCount = 0;
+            group.mBurstChildPosted = false;
+            group.mLines.clear();
+        }
+
+        // Update counters
+        group.mReceivedCount++;
+        group.mBurstCount++;
+        group.mPendingCount++;
+        group.mLastReceivedTimestamp = now;
+
+        // Keep latest message for the child / content intent
+        group.mLastTitle = title;
+        group.mLastText = text;
+        group.mLastPayload = payload;
+
+        // Add summary line (most recent first)
+        group.mLines.addFirst(title + ": " + text);
+
+        // Trim summary lines
+        if (group.mLines.size() > MAX_SUMMARY_LINES) {
+            group.mLines.removeLast();
+        }
+
+        // Flush already scheduled?
+        if (group.mFlushScheduled) {
+            return;
+        }
+
+        // Post once the window elapses (the post queue keeps posts under the rate limit)
+        group.mFlushScheduled = true;
+        mHandler.postDelayed(group.mFlushRunnable, mWindowMs);
+    }
+
+    public Map<String, Object> getStats() {
+        // Prepare stats map (keyed by group key)
+        Map<String, Object> stats = new HashMap<>();
+
+        // Traverse groups
+        for (Group group : mGroups.values()) {
+            // Populate per-group counters
+            Map<String, Object> values = new HashMap<>();
+            values.put("receivedCount", group.mReceivedCount);
+            values.put("postedCount", group.mPostedCount);
+            values.put("collapsedCount", group.mCollapsedCount);
+            values.put("summaryUpdateCount", group.mSummaryUpdateCount);
+            values.put("pendingCount", group.mPendingCount);
+
+            // Add to stats map
+            stats.put(group.mKey, values);
+        }
+
+        // All done
+        return stats;
+    }
+
+    public void shutdown() {
+        // Post what's pending without waiting out the window (don't drop messages received during it)
+        for (Group group : mGroups.values()) {
+            if (group.mFlushScheduled) {
+                mHandler.removeCallbacks(group.mFlushRunnable);
+                flush(group);
+            }
+        }
+
+        // Queued posts still go out at the rate limit (the process outlives the engine)
+    }
+
+    private void flush(Group group) {
+        // Flush ran
+        group.mFlushScheduled = false;
+
+        // Nothing pending?
+        if (group.mPendingCount == 0) {
+            return;
+        }
+
+        // Messages folded into the summary rather than posted individually
+        int collapsedCount = group.mPendingCount;
+
+        // First post of this burst? Post latest message as a regular (grouped) notification
+        if (!group.mBurstChildPosted) {
+            enqueuePost(CHILD_TAG, mNextChildId.getAndIncrement(), buildChild(group));
+            group.mBurstChildPosted = true;
+            group.mPostedCount++;
+            collapsedCount--;
+        }
+
+        // More than one message in this burst? Post / update the InboxStyle summary
+        if (group.mBurstCount > 1) {
+            enqueuePost(SUMMARY_TAG, group.mKey.hashCode(), buildSummary(group));
+            group.mSummaryUpdateCount++;
+        }
+
+        // Update counters
+        group.mCollapsedCount += collapsedCount;
+        group.mPendingCount = 0;
+    }
+
+    private void enqueuePost(String tag, int id, Notification notification) {
+        // Same notification still waiting (e.g. a summary updated again)? Replace its content, it costs one post either way
+        for (Post post : mPosts) {
+            if (post.mId == id && post.mTag.equals(tag)) {
+                post.mNotification = notification;
+                return;
+            }
+        }
+
+        // Wait for its turn
+        mPosts.add(new Post(tag, id, notification));
+        schedulePost();
+    }
+
+    private void schedulePost() {
+        // Already scheduled or nothing to post?
+        if (mPostScheduled || mPosts.isEmpty()) {
+            return;
+        }
+
+        // Next post no sooner than the interval after the last one
+        mPostScheduled = true;
+        mHandler.postDelayed(mPostRunnable, Math.max(0, mLastPostTimestamp + MIN_POST_INTERVAL_MS - SystemClock.elapsedRealtime()));
+    }
+
+    private void postNext() {
+        // Take next post
+        Post post = mPosts.poll();
+
+        // Nothing queued?
+        if (post == null) {
+            return;
+        }
+
+        // Get an instance of the NotificationManager service
+        NotificationManager notificationManager = (NotificationManager) mContext.getSystemService(Context.NOTIFICATION_SERVICE);
+
+        // Post it under our tag
+        notificationManager.notify(post.mTag, post.mId, post.mNotification);
+
+        // Track last post time for rate shaping
+        mLastPostTimestamp = SystemClock.elapsedRealtime();
+
+        // Space out the rest
+        schedulePost();
+    }
+
+    private Notification buildChild(Group group) {
+        // Build grouped notification from cached template
+        return PushyNotification.createNotificationBuilder(mContext)
+                .setContentTitle(group.mLastTitle)
+                .setContentText(group.mLastText)
+                .setGroup(group.mKey)
+                .setContentIntent(PushyNotification.getMainActivityPendingIntent(mContext, group.mLastPayload))
+                .build();
+    }
+
+    private Notification buildSummary(Group group) {
+        // Prepare InboxStyle with the most recent messages
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+
+        // Add summary lines
+        for (String line : group.mLines) {
+            style.addLine(line);
+        }
+
+        // Number of messages not shown as lines
+        int hiddenCount = group.mBurstCount - group.mLines.size();
+
+        // Mention them in summary text
+        if (hiddenCount > 0) {
+            style.setSummaryText("+" + hiddenCount + " more");
+        }
+
+        // Build group summary (tapping it opens the latest message)
+        return PushyNotification.createNotificationBuilder(mContext)
+                .setContentTitle(group.mBurstCount + " new notifications")
+                .setContentText(group.mLastTitle + ": " + group.mLastText)
+                .setStyle(style)
+                .setNumber(group.mBurstCount)
+                .setGroup(group.mKey)
+                .setGroupSummary(true)
+                .setOnlyAlertOnce(true)
+                .setContentIntent(PushyNotification.getMainActivityPendingIntent(mContext, group.mLastPayload))
+                .build();
+    }
+
+    private Group getGroup(String key) {
+        // Get existing group
+        Group group = mGroups.get(key);
+
+        // First notification in this group?
+        if (group == null) {
+            group = new Group(key);
+            mGroups.put(key, group);
+        }
+
+        // All done
+        return group;
+    }
+
+    private static class Post {
+        final String mTag;
+        final int mId;
+        Notification mNotification;
+
+        Post(String tag, int id, Notification notification) {
+            mTag = tag;
+            mId = id;
+            mNotification = notification;
+        }
+    }
+
+    private class Group {
+        final String mKey;
+        final LinkedList<String> mLines = new LinkedList<>();
+
+        long mReceivedCount;
+        long mPostedCount;
+        long mCollapsedCount;
+        long mSummaryUpdateCount;
+
+        int mBurstCount;
+        int mPendingCount;
+        boolean mBurstChildPosted;
+        boolean mFlushScheduled;
+        long mLastReceivedTimestamp;
+
+        String mLastTitle;
+        String mLastText;
+        String mLastPayload;
+
+        final Runnable mFlushRunnable = new Runnable() {
+            @Override
+            public void run() {
+                flush(Group.this);
+            }
+        };
+
+        Group(String key) {
+            mKey = key;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.flutter.config.PushyIntentExtras;
+
+// Drops notifications delivered more than once (e.g. over both MQTT and FCM fallback)
+// Only notifications carrying a message ID are checked, unless payload hashing is enabled (identical pushes are legitimate otherwise)
+// Seen message IDs are kept as 64-bit hashes in a bounded LRU, mirrored to a fixed-size ring file of [hash][timestamp] slots
+public class PushyNotificationDeduplicator {
+    private static final String FILE_NAME = "pushy_seen_notifications.bin";
+
+    private static final int CAPACITY = 1024;
+    private static final int SLOT_SIZE = 16;
+    private static final long WINDOW_MS = 2 * 60 * 1000;
+
+    private static PushyNotificationDeduplicator mInstance;
+
+    private final File mFile;
+    private final LinkedHashMap<Long, Long> mSeen = new LinkedHashMap<>(CAPACITY, 0.75f, true);
+
+    private FileChannel mChannel;
+    private int mNextSlot;
+    private long mDuplicateCount;
+
+    public static synchronized PushyNotificationDeduplicator getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyNotificationDeduplicator(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyNotificationDeduplicator(Context context) {
+        // Ring file lives in app-private storage
+        mFile = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    public synchronized boolean isDuplicate(JSONObject notification, Context context) {
+        // Message ID provided in payload?
+        String messageId = notification.optString(PushyIntentExtras.MESSAGE_ID, null);
+
+        // No message ID & payload hashing not enabled? Never treat as duplicate
+        if (messageId == null && !PushyPersistence.isPayloadDeduplication(context)) {
+            return false;
+        }
+
+        // Load persisted hashes (lazily)
+        open();
+
+        // Identify notification by message ID (or payload hash)
+        long hash = messageId != null ? fnv1a64(messageId) : getPayloadHash(notification);
+        long now = System.currentTimeMillis();
+
+        // Seen within the window?
+        Long seenAt = mSeen.get(hash);
+
+        if (seenAt != null && now - seenAt < WINDOW_MS) {
+            mDuplicateCount++;
+            return true;
+        }
+
+        // Remember it
+        mSeen.put(hash, now);
+
+        // Evict least recently seen beyond capacity
+        if (mSeen.size() > CAPACITY) {
+            Iterator<Long> iterator = mSeen.keySet().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+
+        // Persist so it survives process death
+        persist(hash, now);
+
+        // First delivery
+        return false;
+    }
+
+    public synchronized long getDuplicateCount() {
+        // Duplicates dropped by this process
+        return mDuplicateCount;
+    }
+
+    private void open() {
+        // Already open?
+        if (mChannel != null) {
+            return;
+        }
+
+        try {
+            // Open (or create) ring file
+            mChannel = new RandomAccessFile(mFile, "rw").getChannel();
+
+            // Read all slots
+            ByteBuffer slots = ByteBuffer.allocate((int) Math.min(mChannel.size(), CAPACITY * SLOT_SIZE));
+
+            while (slots.hasRemaining() && mChannel.read(slots, slots.position()) > 0) {
+                // Keep reading
+            }
+
+            // Collect unexpired entries
+            List<long[]> entries = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            long oldestTimestamp = Long.MAX_VALUE;
+
+            for (int slot = 0; slot < slots.position() / SLOT_SIZE; slot++) {
+                long hash = slots.getLong(slot * SLOT_SIZE);
+                long timestamp = slots.getLong(slot * SLOT_SIZE + 8);
+
+                // Next write overwrites the oldest slot
+                if (timestamp < oldestTimestamp) {
+                    oldestTimestamp = timestamp;
+                    mNextSlot = slot;
+                }
+
+                // Still within window?
+                if (timestamp > 0 && now - timestamp < WINDOW_MS) {
+                    entries.add(new long[]{hash, timestamp});
+                }
+            }
+
+            // Ring not full yet? Append after last slot
+            if (slots.position() / SLOT_SIZE < CAPACITY) {
+                mNextSlot = slots.position() / SLOT_SIZE;
+            }
+
+            // Insert oldest first to restore LRU order
+            Collections.sort(entries, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] a, long[] b) {
+                    return a[1] < b[1] ? -1 : (a[1] == b[1] ? 0 : 1);
+                }
+            });
+
+            for (long[] entry : entries) {
+                mSeen.put(entry[0], entry[1]);
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat (dedupe continues in memory only)
+            Log.e(PushyLogging.TAG, "Failed to load seen notification IDs:" + e.getMessage(), e);
+        }
+    }
+
+    private void persist(long hash, long timestamp) {
+        // Ring file unavailable?
+        if (mChannel == null) {
+            return;
+        }
+
+        try {
+            // Overwrite next slot in place (16 bytes, no rewrite of the whole set)
+            ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+            slot.putLong(0, hash);
+            slot.putLong(8, timestamp);
+
+            while (slot.hasRemaining()) {
+                mChannel.write(slot, (long) mNextSlot * SLOT_SIZE + slot.position());
+            }
+
+            // Advance ring position
+            mNextSlot = (mNextSlot + 1) % CAPACITY;
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to persist seen notification ID:" + e.getMessage(), e);
+        }
+    }
+
+    private static long getPayloadHash(JSONObject notification) {
+        // Hash the payload (sorted keys, ignoring transport-specific extras added by FCM)
+        List<String> keys = new ArrayList<>();
+        Iterator<String> iterator = notification.keys();
+
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+
+            if (!isTransportKey(key)) {
+                keys.add(key);
+            }
+        }
+
+        // Stable order regardless of delivery channel
+        Collections.sort(keys);
+
+        // Build canonical representation
+        StringBuilder canonical = new StringBuilder();
+
+        for (String key : keys) {
+            canonical.append(key).append('=').append(notification.opt(key)).append('\n');
+        }
+
+        // Hash it
+        return fnv1a64(canonical.toString());
+    }
+
+    private static boolean isTransportKey(String key) {
+        // Extras injected by FCM / the OS differ between delivery channels
+        return key.startsWith("google.") || key.startsWith("gcm.") || key.startsWith("android.") || key.equals("from") || key.equals("collapse_key");
+    }
+
+    private static long fnv1a64(String value) {
+        // 64-bit FNV-1a hash
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+}
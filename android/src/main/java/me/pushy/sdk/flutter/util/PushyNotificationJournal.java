@@ -0,0 +1,788 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+import me.pushy.sdk.config.PushyLogging;
+
+// File-backed, append-only queue of pending notifications
+// Layout: 40-byte header ([int magic][int version][long first undelivered offset][long evicted][long expired][long next sequence]), then
+// records of [int length][int crc32][long expiresAt][byte priority][byte deleted][long sequence][UTF-8 JSON]
+// Evicted / expired records are tombstoned in place via their "deleted" byte (not covered by the checksum)
+// Durability: append(), drain() & acknowledge() fsync once per call (accepted notifications survive a crash, released ones aren't redelivered)
+public class PushyNotificationJournal {
+    public static final int POLICY_DROP_OLDEST = 0;
+    public static final int POLICY_DROP_NEWEST = 1;
+    public static final int POLICY_DROP_LOWEST_PRIORITY = 2;
+
+    private static final String FILE_NAME = "pushy_pending_notifications.journal";
+    private static final String COMPACTION_FILE_NAME = FILE_NAME + ".compact";
+
+    private static final int MAGIC = 0x50534a4e;
+    private static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 40;
+    private static final int RECORD_HEADER_SIZE = 26;
+    private static final int RECORD_DELETED_OFFSET = 17;
+    private static final int RECORD_SEQUENCE_OFFSET = 18;
+    private static final int MAX_RECORD_SIZE = 4 * 1024 * 1024;
+    private static final long COMPACTION_THRESHOLD = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static PushyNotificationJournal mInstance;
+
+    private final File mFile;
+    private final File mCompactionFile;
+    private final ExecutorService mCompactionExecutor;
+
+    // Live (undelivered, not evicted) records in append order, keyed by sequence number (O(1) release)
+    private final LinkedHashMap<Long, Entry> mEntries = new LinkedHashMap<>();
+
+    private RandomAccessFile mRandomAccessFile;
+    private FileChannel mChannel;
+    private long mConsumedOffset;
+    private long mNextSequence = 1;
+    private long mLiveBytes;
+    private long mEvictedCount;
+    private long mExpiredCount;
+    private boolean mCompactionScheduled;
+
+    private int mMaxCount;
+    private long mMaxBytes;
+    private int mEvictionPolicy = POLICY_DROP_OLDEST;
+    private long mDefaultTtlMs;
+
+    public interface Reader {
+        void onNotification(JSONObject notification);
+    }
+
+    public static class Record {
+        public final long mSequence;
+        public final int mPriority;
+        public final long mReceivedAt;
+        public final JSONObject mNotification;
+
+        Record(long sequence, int priority, long receivedAt, JSONObject notification) {
+            this.mSequence = sequence;
+            this.mPriority = priority;
+            this.mReceivedAt = receivedAt;
+            this.mNotification = notification;
+        }
+    }
+
+    private static class Entry {
+        final long mSequence;
+        final int mSize;
+        final long mExpiresAt;
+        final byte mPriority;
+        final long mReceivedAt;
+
+        long mOffset;
+        boolean mSent;
+
+        Entry(long sequence, long offset, int size, long expiresAt, byte priority, long receivedAt) {
+            this.mSequence = sequence;
+            this.mOffset = offset;
+            this.mSize = size;
+            this.mExpiresAt = expiresAt;
+            this.mPriority = priority;
+            this.mReceivedAt = receivedAt;
+        }
+
+        boolean isExpired(long now) {
+            // Zero means no TTL
+            return mExpiresAt > 0 && mExpiresAt <= now;
+        }
+    }
+
+    public static synchronized PushyNotificationJournal getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyNotificationJournal(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyNotificationJournal(Context context) {
+        // Journal files live in app-private storage
+        mFile = new File(context.getFilesDir(), FILE_NAME);
+        mCompactionFile = new File(context.getFilesDir(), COMPACTION_FILE_NAME);
+
+        // Compaction runs off the calling thread
+        mCompactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "PushyJournalCompaction");
+            }
+        });
+    }
+
+    public synchronized void setLimits(int maxCount, long maxBytes, int evictionPolicy, long defaultTtlMs) {
+        // Zero means unlimited / no TTL
+        mMaxCount = maxCount;
+        mMaxBytes = maxBytes;
+        mEvictionPolicy = evictionPolicy;
+        mDefaultTtlMs = defaultTtlMs;
+    }
+
+    public synchronized boolean append(JSONObject notification, int priority, long ttlMs) throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Encode notification as UTF-8 JSON
+        byte[] payload = notification.toString().getBytes(UTF_8);
+
+        // Refuse records the reader would reject
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new IOException("Notification exceeds maximum journal record size: " + payload.length);
+        }
+
+        // Clamp priority to a byte
+        byte recordPriority = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, priority));
+
+        // Compute expiry (per-notification TTL, else default TTL, else never)
+        long ttl = ttlMs > 0 ? ttlMs : mDefaultTtlMs;
+        long expiresAt = ttl > 0 ? System.currentTimeMillis() + ttl : 0;
+
+        // Make room (or reject this notification) according to eviction policy
+        if (!makeRoom(RECORD_HEADER_SIZE + payload.length, recordPriority)) {
+            return false;
+        }
+
+        // Prepare record
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length);
+        record.putInt(0);
+        record.putLong(expiresAt);
+        record.put(recordPriority);
+        record.put((byte) 0);
+        record.putLong(mNextSequence);
+        record.put(payload);
+
+        // Fill in checksum (covers expiry, priority, sequence & payload)
+        record.putInt(4, crc32(record.array(), payload.length));
+        record.flip();
+
+        // Append at end of file (O(1), no rewrite of earlier records)
+        long offset = mChannel.size();
+        writeFully(record, offset);
+
+        // Index it
+        mEntries.put(mNextSequence, new Entry(mNextSequence, offset, RECORD_HEADER_SIZE + payload.length, expiresAt, recordPriority, System.currentTimeMillis()));
+        mNextSequence++;
+        mLiveBytes += RECORD_HEADER_SIZE + payload.length;
+
+        // On disk before the receiver lets go of it
+        sync();
+
+        // Persisted
+        return true;
+    }
+
+    public synchronized void read(Reader reader) throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Current time
+        long now = System.currentTimeMillis();
+
+        // Stream records in priority order (records handed to the background isolate are skipped)
+        for (Entry entry : getUnsent()) {
+            // Stale? Discard it before it reaches Dart
+            if (entry.isExpired(now)) {
+                tombstone(entry);
+                mExpiredCount++;
+                writeHeader(mConsumedOffset);
+                continue;
+            }
+
+            // Parse & hand to reader (records stay in the journal)
+            deliver(entry, reader);
+        }
+    }
+
+    public synchronized void drain(Reader reader) throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Current time
+        long now = System.currentTimeMillis();
+
+        // Read & release records in priority order under one lock (compaction can't move them in between)
+        // Records handed to the background isolate are left for its acknowledgement
+        for (Entry entry : getUnsent()) {
+            // Stale? Discard it before it reaches Dart
+            if (entry.isExpired(now)) {
+                mExpiredCount++;
+            }
+            // Parse & hand to reader
+            else {
+                deliver(entry, reader);
+            }
+
+            // Delivered (or expired), release it by entry rather than by file offset
+            tombstone(entry);
+        }
+
+        // Persist released records (one fsync for the whole drain)
+        release();
+    }
+
+    private void deliver(Entry entry, Reader reader) throws IOException {
+        // Read payload
+        ByteBuffer payload = ByteBuffer.allocate(entry.mSize - RECORD_HEADER_SIZE);
+        readFully(payload, entry.mOffset + RECORD_HEADER_SIZE);
+
+        try {
+            // Hand parsed notification to reader
+            reader.onNotification(new JSONObject(new String(payload.array(), UTF_8)));
+        }
+        catch (JSONException e) {
+            // Log error to logcat and skip this record
+            Log.e(PushyLogging.TAG, "Failed to parse journaled notification:" + e.getMessage(), e);
+        }
+    }
+
+    public synchronized List<Record> readPending(int maxCount) throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Prepare list of records
+        List<Record> records = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        // Traverse records not yet handed out (in priority order)
+        for (Entry entry : getUnsent()) {
+            // Enough records?
+            if (records.size() >= maxCount) {
+                break;
+            }
+
+            // Stale? Discard it before it reaches Dart
+            if (entry.isExpired(now)) {
+                tombstone(entry);
+                mExpiredCount++;
+                writeHeader(mConsumedOffset);
+                continue;
+            }
+
+            // Read payload
+            ByteBuffer payload = ByteBuffer.allocate(entry.mSize - RECORD_HEADER_SIZE);
+            readFully(payload, entry.mOffset + RECORD_HEADER_SIZE);
+
+            try {
+                // Parse notification, keeping its sequence number for the acknowledgement
+                records.add(new Record(entry.mSequence, entry.mPriority, entry.mReceivedAt, new JSONObject(new String(payload.array(), UTF_8))));
+
+                // Handed out (until acknowledged or reset)
+                entry.mSent = true;
+            }
+            catch (JSONException e) {
+                // Log error to logcat and drop this record (it would never parse)
+                Log.e(PushyLogging.TAG, "Failed to parse journaled notification:" + e.getMessage(), e);
+                tombstone(entry);
+                writeHeader(mConsumedOffset);
+            }
+        }
+
+        // All done
+        return records;
+    }
+
+    private List<Entry> getUnsent() {
+        // Collect records not yet handed out (snapshot, records appended meanwhile are left for next time)
+        List<Entry> entries = new ArrayList<>();
+
+        for (Entry entry : mEntries.values()) {
+            if (!entry.mSent) {
+                entries.add(entry);
+            }
+        }
+
+        // Priority lanes: higher priority first, FIFO within the same priority (stable sort)
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                return b.mPriority - a.mPriority;
+            }
+        });
+
+        // All done
+        return entries;
+    }
+
+    public synchronized void resetPending() {
+        // Hand out all unacknowledged records again (e.g. to a restarted isolate)
+        for (Entry entry : mEntries.values()) {
+            entry.mSent = false;
+        }
+    }
+
+    public synchronized void resetPending(List<Long> sequences) {
+        // Hand out these records again (e.g. their delivery timed out)
+        for (Long sequence : sequences) {
+            Entry entry = mEntries.get(sequence);
+
+            if (entry != null) {
+                entry.mSent = false;
+            }
+        }
+    }
+
+    public synchronized void acknowledge(long sequence) throws IOException {
+        // Single record
+        acknowledge(Collections.singletonList(sequence));
+    }
+
+    public synchronized void acknowledge(List<Long> sequences) throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Look up each record by sequence number (unknown ones were already released, e.g. evicted)
+        for (Long sequence : sequences) {
+            Entry entry = mEntries.get(sequence);
+
+            if (entry != null) {
+                // Mark record as delivered in place (survives process death, even if acknowledged out of order)
+                tombstone(entry);
+            }
+        }
+
+        // Persist released records (one fsync for the whole batch)
+        release();
+    }
+
+    public synchronized void clear() throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Drop all records
+        truncate();
+        sync();
+    }
+
+    private void release() throws IOException {
+        // Everything delivered? Truncate back to an empty journal
+        if (mEntries.isEmpty()) {
+            truncate();
+        }
+        else {
+            // Persist new consumed offset (first unacknowledged record)
+            writeHeader(mConsumedOffset);
+
+            // Reclaim delivered prefix in the background once it grows large
+            if (mConsumedOffset - HEADER_SIZE >= COMPACTION_THRESHOLD) {
+                scheduleCompaction();
+            }
+        }
+
+        // Tombstones & header on disk before the caller moves on
+        sync();
+    }
+
+    private void sync() throws IOException {
+        // Flush file contents (metadata such as mtime isn't needed to replay the journal)
+        mChannel.force(false);
+    }
+
+    public synchronized boolean isEmpty() throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Any undelivered records?
+        return mEntries.isEmpty();
+    }
+
+    public synchronized Map<String, Object> getStats() throws IOException {
+        // Open journal (lazily)
+        open();
+
+        // Prepare stats map
+        Map<String, Object> stats = new HashMap<>();
+
+        // Populate queue depth, limits & eviction counters
+        stats.put("count", mEntries.size());
+        stats.put("bytes", mLiveBytes);
+        stats.put("maxCount", mMaxCount);
+        stats.put("maxBytes", mMaxBytes);
+        stats.put("evictionPolicy", mEvictionPolicy);
+        stats.put("evictedCount", mEvictedCount);
+        stats.put("expiredCount", mExpiredCount);
+
+        // All done
+        return stats;
+    }
+
+    private boolean makeRoom(int size, byte priority) throws IOException {
+        // Within limits already?
+        if (!isOverLimit(size)) {
+            return true;
+        }
+
+        // Expired records are the cheapest to drop
+        purgeExpired();
+
+        // Evict until the new record fits
+        while (isOverLimit(size)) {
+            // Nothing left to evict (record alone exceeds limits), or policy keeps existing records?
+            if (mEntries.isEmpty() || mEvictionPolicy == POLICY_DROP_NEWEST) {
+                return reject();
+            }
+
+            // Oldest record by default
+            Entry victim = mEntries.values().iterator().next();
+
+            // Lowest priority (oldest among equals) instead?
+            if (mEvictionPolicy == POLICY_DROP_LOWEST_PRIORITY) {
+                for (Entry entry : mEntries.values()) {
+                    if (entry.mPriority < victim.mPriority) {
+                        victim = entry;
+                    }
+                }
+
+                // New notification is the lowest priority one?
+                if (priority < victim.mPriority) {
+                    return reject();
+                }
+            }
+
+            // Evict it
+            tombstone(victim);
+            mEvictedCount++;
+        }
+
+        // Persist counters & consumed offset
+        writeHeader(mConsumedOffset);
+
+        // Room made
+        return true;
+    }
+
+    private boolean reject() throws IOException {
+        // Count the dropped notification
+        mEvictedCount++;
+
+        // Persist counters
+        writeHeader(mConsumedOffset);
+
+        // Log eviction
+        Log.w(PushyLogging.TAG, "Pending notification queue full, dropping notification");
+
+        // Not persisted
+        return false;
+    }
+
+    private boolean isOverLimit(int size) {
+        // Count or byte capacity exceeded?
+        return (mMaxCount > 0 && mEntries.size() + 1 > mMaxCount) || (mMaxBytes > 0 && mLiveBytes + size > mMaxBytes);
+    }
+
+    private void purgeExpired() throws IOException {
+        // Current time
+        long now = System.currentTimeMillis();
+
+        // Traverse a copy (tombstone() modifies the index)
+        for (Entry entry : new ArrayList<>(mEntries.values())) {
+            if (entry.isExpired(now)) {
+                tombstone(entry);
+                mExpiredCount++;
+            }
+        }
+    }
+
+    private void tombstone(Entry entry) throws IOException {
+        // Mark record as deleted in place
+        ByteBuffer deleted = ByteBuffer.allocate(1);
+        deleted.put(0, (byte) 1);
+        writeFully(deleted, entry.mOffset + RECORD_DELETED_OFFSET);
+
+        // Remove from index
+        mEntries.remove(entry.mSequence);
+        mLiveBytes -= entry.mSize;
+
+        // Skip leading dead records when reading
+        mConsumedOffset = mEntries.isEmpty() ? mChannel.size() : mEntries.values().iterator().next().mOffset;
+    }
+
+    private void open() throws IOException {
+        // Already open?
+        if (mChannel != null) {
+            return;
+        }
+
+        // Interrupted compaction? Discard partial copy (journal was never replaced)
+        if (mCompactionFile.exists() && !mCompactionFile.delete()) {
+            Log.e(PushyLogging.TAG, "Failed to delete stale journal compaction file");
+        }
+
+        // Open (or create) journal
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        mChannel = mRandomAccessFile.getChannel();
+
+        // Reset index
+        mEntries.clear();
+        mLiveBytes = 0;
+
+        // New or torn header? Start with an empty journal
+        if (mChannel.size() < HEADER_SIZE) {
+            truncate();
+            return;
+        }
+
+        // Read header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+
+        // Unknown format? Start over rather than replay garbage
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            Log.e(PushyLogging.TAG, "Unknown journal format, discarding pending notifications");
+            truncate();
+            return;
+        }
+
+        // Restore consumed offset, counters & sequence numbering
+        mConsumedOffset = header.getLong(8);
+        mEvictedCount = header.getLong(16);
+        mExpiredCount = header.getLong(24);
+        mNextSequence = Math.max(mNextSequence, header.getLong(32));
+
+        // Invalid offset? Start over rather than replay garbage
+        if (mConsumedOffset < HEADER_SIZE || mConsumedOffset > mChannel.size()) {
+            Log.e(PushyLogging.TAG, "Invalid journal header, discarding pending notifications");
+            truncate();
+            return;
+        }
+
+        // Index records & drop a torn record left behind by a crash mid-append
+        buildIndex();
+    }
+
+    private void buildIndex() throws IOException {
+        // Walk records to find live ones and the end of the last valid one
+        long offset = mConsumedOffset;
+        long size = mChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+
+        // Traverse valid records
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            // Read record header
+            header.clear();
+            readFully(header, offset);
+
+            // Extract length
+            int length = header.getInt(0);
+
+            // Invalid or truncated record?
+            if (length < 0 || length > MAX_RECORD_SIZE || offset + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+
+            // Read whole record to verify checksum
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+            readFully(record, offset);
+
+            // Checksum mismatch (torn write)?
+            if (crc32(record.array(), length) != record.getInt(4)) {
+                break;
+            }
+
+            // Live record? Index it under its persisted sequence number (acknowledgements stay valid across reopen)
+            if (record.get(RECORD_DELETED_OFFSET) == 0) {
+                long sequence = record.getLong(RECORD_SEQUENCE_OFFSET);
+                mEntries.put(sequence, new Entry(sequence, offset, RECORD_HEADER_SIZE + length, record.getLong(8), record.get(16), 0));
+                mLiveBytes += RECORD_HEADER_SIZE + length;
+
+                // Never hand out a sequence number twice
+                mNextSequence = Math.max(mNextSequence, sequence + 1);
+            }
+
+            // Advance past this record
+            offset += RECORD_HEADER_SIZE + length;
+        }
+
+        // Trailing partial / corrupt bytes?
+        if (offset < size) {
+            Log.w(PushyLogging.TAG, "Truncating " + (size - offset) + " bytes of torn journal data");
+            mChannel.truncate(offset);
+        }
+    }
+
+    private void truncate() throws IOException {
+        // Drop all records
+        mEntries.clear();
+        mLiveBytes = 0;
+
+        // Reset file & header (counters are kept)
+        mChannel.truncate(HEADER_SIZE);
+        writeHeader(HEADER_SIZE);
+    }
+
+    private void writeHeader(long consumedOffset) throws IOException {
+        // Write header in place
+        writeFully(buildHeader(consumedOffset), 0);
+
+        // Keep in memory
+        mConsumedOffset = consumedOffset;
+    }
+
+    private ByteBuffer buildHeader(long consumedOffset) {
+        // Format, consumed offset, counters & next sequence number
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(8, consumedOffset);
+        header.putLong(16, mEvictedCount);
+        header.putLong(24, mExpiredCount);
+        header.putLong(32, mNextSequence);
+        return header;
+    }
+
+    private void scheduleCompaction() {
+        // Already scheduled?
+        if (mCompactionScheduled) {
+            return;
+        }
+
+        // Compact off the calling thread
+        mCompactionScheduled = true;
+        mCompactionExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    compact();
+                }
+                catch (IOException e) {
+                    // Log error to logcat (journal remains valid, just larger)
+                    Log.e(PushyLogging.TAG, "Failed to compact notification journal:" + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private synchronized void compact() throws IOException {
+        // Allow future compactions
+        mCompactionScheduled = false;
+
+        // Nothing to reclaim anymore (e.g. truncated meanwhile)?
+        if (mChannel == null || mConsumedOffset == HEADER_SIZE) {
+            return;
+        }
+
+        // Write live records to a new file
+        RandomAccessFile compacted = new RandomAccessFile(mCompactionFile, "rw");
+
+        try {
+            FileChannel compactedChannel = compacted.getChannel();
+
+            // Header pointing at first record
+            compactedChannel.write(buildHeader(HEADER_SIZE), 0);
+
+            // Copy live records (tombstoned ones are dropped)
+            long position = HEADER_SIZE;
+
+            for (Entry entry : mEntries.values()) {
+                long copied = 0;
+
+                while (copied < entry.mSize) {
+                    copied += mChannel.transferTo(entry.mOffset + copied, entry.mSize - copied, compactedChannel.position(position + copied));
+                }
+
+                // Re-index at new offset (sequence numbers of in-flight records stay valid)
+                entry.mOffset = position;
+                position += entry.mSize;
+            }
+
+            // Make sure it's on disk before it replaces the journal
+            compactedChannel.force(true);
+        }
+        finally {
+            compacted.close();
+        }
+
+        // Close current journal
+        mChannel.close();
+        mRandomAccessFile.close();
+        mChannel = null;
+
+        // Atomically replace journal with compacted copy
+        if (!mCompactionFile.renameTo(mFile)) {
+            // Remember records handed out to the background isolate
+            List<Long> sent = new ArrayList<>();
+
+            for (Entry entry : mEntries.values()) {
+                if (entry.mSent) {
+                    sent.add(entry.mSequence);
+                }
+            }
+
+            // Log error and reopen old journal (rebuilds index under the same sequence numbers)
+            Log.e(PushyLogging.TAG, "Failed to replace notification journal with compacted copy");
+            open();
+
+            // Keep them handed out until acknowledged or reset
+            for (Long sequence : sent) {
+                Entry entry = mEntries.get(sequence);
+
+                if (entry != null) {
+                    entry.mSent = true;
+                }
+            }
+            return;
+        }
+
+        // Reopen compacted journal (index already points at new offsets)
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        mChannel = mRandomAccessFile.getChannel();
+        mConsumedOffset = HEADER_SIZE;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        // Keep reading until buffer is full
+        while (buffer.hasRemaining()) {
+            if (mChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of notification journal");
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        // Keep writing until buffer is drained
+        while (buffer.hasRemaining()) {
+            mChannel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static int crc32(byte[] record, int payloadLength) {
+        // Checksum covers expiry & priority (bytes 8-16), sequence and payload (deleted flag excluded)
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, 9);
+        crc.update(record, RECORD_SEQUENCE_OFFSET, 8 + payloadLength);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,569 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import io.flutter.plugin.common.EventChannel;
+import me.pushy.sdk.config.PushyLogging;
+
+// Durable queue of network-bound calls (register, setDeviceCredentials, subscribe, unsubscribe) that failed while offline
+// Operations that replace each other are collapsed, retries use exponential backoff with full jitter and restart on connectivity
+public class PushyOperationQueue {
+    public static final String TYPE_REGISTER = "register";
+    public static final String TYPE_SET_DEVICE_CREDENTIALS = "setDeviceCredentials";
+    public static final String TYPE_SUBSCRIBE = "subscribe";
+    public static final String TYPE_UNSUBSCRIBE = "unsubscribe";
+
+    // Backoff bounds (retry n waits a random delay in [0, min(MAX, BASE * 2^n)])
+    private static final long BASE_BACKOFF_MS = 2 * 1000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    // Give up on an operation after this many failures while online
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static PushyOperationQueue mInstance;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Random mRandom = new Random();
+    private final Map<String, Operation> mOperations = new LinkedHashMap<>();
+    private final List<EventChannel.EventSink> mSinks = new ArrayList<>();
+
+    // Attached engines able to run operations (latest attached runs retries)
+    private final List<Runner> mRunners = new ArrayList<>();
+
+    // Calls of the current round awaiting their result, by the engine running them (released if it detaches first)
+    private final Map<PushyIOExecutor.Callback, Runner> mInFlightCalls = new HashMap<>();
+
+    private long mNextId;
+    private int mRound;
+    private boolean mRetryScheduled;
+    private boolean mReceiverRegistered;
+
+    private long mQueuedCount;
+    private long mSucceededCount;
+    private long mFailedCount;
+    private long mRetryCount;
+
+    private final Runnable mRetryRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Backoff elapsed
+            mRetryScheduled = false;
+            process();
+        }
+    };
+
+    private final BroadcastReceiver mConnectivityReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Back online? Retry right away instead of waiting out the backoff
+            if (isOnline()) {
+                mHandler.removeCallbacks(mRetryRunnable);
+                mRetryScheduled = false;
+                process();
+            }
+        }
+    };
+
+    public interface Runner {
+        void run(String type, List<String> args, PushyIOExecutor.Callback callback);
+    }
+
+    private static class Operation {
+        long mId;
+        String mType;
+        List<String> mArgs;
+        int mAttempts;
+    }
+
+    public static synchronized PushyOperationQueue getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyOperationQueue(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyOperationQueue(Context context) {
+        // Store context for later
+        mContext = context;
+
+        // Load operations left over from a previous process
+        load();
+    }
+
+    public void attach(final Runner runner) {
+        // Run on main thread (all queue state is confined to it)
+        PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Latest attached engine runs retries (others take over when it detaches)
+                mRunners.remove(runner);
+                mRunners.add(runner);
+
+                // Resume leftover operations
+                process();
+            }
+        });
+    }
+
+    public void detach(final Runner runner) {
+        // Run on main thread (all queue state is confined to it)
+        PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Stop running operations through this engine
+                mRunners.remove(runner);
+
+                // Its in-flight calls are cancelled without a result, settle them here (or the queue would wait forever)
+                releaseInFlightCalls(runner);
+
+                // Another engine still attached? It picks up the next retry
+                if (!mRunners.isEmpty()) {
+                    return;
+                }
+
+                // Pause retries until an engine attaches again (operations stay on disk)
+                mHandler.removeCallbacks(mRetryRunnable);
+                mRetryScheduled = false;
+                unregisterReceiver();
+            }
+        });
+    }
+
+    public boolean offer(String type, List<String> args) {
+        // Disabled, or failed for another reason than connectivity? Let the caller handle it
+        if (!PushyPersistence.isOfflineQueueEnabled(mContext) || isOnline()) {
+            return false;
+        }
+
+        // Run on main thread (all queue state is confined to it)
+        final String opType = type;
+        final List<String> opArgs = new ArrayList<>(args);
+
+        PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                enqueue(opType, opArgs);
+            }
+        });
+
+        // Queued for retry
+        return true;
+    }
+
+    private void enqueue(String type, List<String> args) {
+        // Topic changes collapse per topic
+        if (TYPE_SUBSCRIBE.equals(type) || TYPE_UNSUBSCRIBE.equals(type)) {
+            for (String topic : args) {
+                List<String> topicArgs = new ArrayList<>(1);
+                topicArgs.add(topic);
+                put("topic:" + topic, type, topicArgs);
+            }
+        }
+        // register & setDeviceCredentials replace each other
+        else {
+            put("credentials", type, args);
+        }
+
+        // Persist queue
+        persist();
+
+        // Retry when connectivity returns
+        registerReceiver();
+
+        // Start backing off (unless a retry is already pending)
+        scheduleRetry();
+    }
+
+    private void put(String key, String type, List<String> args) {
+        // Create operation
+        Operation operation = new Operation();
+        operation.mId = ++mNextId;
+        operation.mType = type;
+        operation.mArgs = args;
+
+        // Replaced operation?
+        Operation replaced = mOperations.remove(key);
+
+        if (replaced != null) {
+            publish(replaced, "replaced", null);
+        }
+
+        // Latest wins (and moves to the end)
+        mOperations.put(key, operation);
+        mQueuedCount++;
+
+        // Report progress
+        publish(operation, "queued", null);
+    }
+
+    private void process() {
+        // No engine to run operations, round still in flight, or nothing queued?
+        if (mRunners.isEmpty() || !mInFlightCalls.isEmpty() || mOperations.isEmpty()) {
+            return;
+        }
+
+        // Still offline? Wait for the connectivity broadcast
+        if (!isOnline()) {
+            registerReceiver();
+            return;
+        }
+
+        // Retry every queued operation (topic changes are batched by the topic manager)
+        List<Map.Entry<String, Operation>> entries = new ArrayList<>(mOperations.entrySet());
+
+        for (Map.Entry<String, Operation> entry : entries) {
+            run(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void run(final String key, final Operation operation) {
+        // Count attempt
+        operation.mAttempts++;
+        mRetryCount++;
+
+        // Report progress
+        publish(operation, "retrying", null);
+
+        // Latest attached engine runs it
+        Runner runner = mRunners.get(mRunners.size() - 1);
+
+        PushyIOExecutor.Callback callback = new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Settle on main thread (all queue state is confined to it)
+                onResult(this, key, operation, null);
+            }
+
+            @Override
+            public void onError(String message) {
+                // Settle on main thread (all queue state is confined to it)
+                onResult(this, key, operation, message != null ? message : "Unknown error");
+            }
+        };
+
+        // Track it until it settles (or its engine detaches)
+        mInFlightCalls.put(callback, runner);
+
+        // Run operation via the engine
+        runner.run(operation.mType, operation.mArgs, callback);
+    }
+
+    private void releaseInFlightCalls(Runner runner) {
+        // Collect calls run through this engine
+        List<PushyIOExecutor.Callback> released = new ArrayList<>();
+
+        for (Map.Entry<PushyIOExecutor.Callback, Runner> entry : mInFlightCalls.entrySet()) {
+            if (entry.getValue() == runner) {
+                released.add(entry.getKey());
+            }
+        }
+
+        // Settle them as failed (operations stay queued for the next round)
+        for (PushyIOExecutor.Callback callback : released) {
+            callback.onError("Engine detached");
+        }
+    }
+
+    private void onResult(final PushyIOExecutor.Callback callback, final String key, final Operation operation, final String error) {
+        // Hop to main thread
+        PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Already settled (released when its engine detached)?
+                if (mInFlightCalls.remove(callback) == null) {
+                    return;
+                }
+
+                // Succeeded? Drop operation (unless replaced meanwhile)
+                if (error == null) {
+                    if (mOperations.get(key) == operation) {
+                        mOperations.remove(key);
+                    }
+
+                    // Report progress
+                    mSucceededCount++;
+                    publish(operation, "succeeded", null);
+                }
+                // Failed while online too many times? Give up
+                else if (isOnline() && operation.mAttempts >= MAX_ATTEMPTS && mOperations.get(key) == operation) {
+                    mOperations.remove(key);
+                    mFailedCount++;
+                    publish(operation, "failed", error);
+                }
+                // Otherwise keep it for the next round
+                else {
+                    publish(operation, "queued", error);
+                }
+
+                // Round settled?
+                onSettled();
+            }
+        });
+    }
+
+    private void onSettled() {
+        // Wait for remaining operations of this round
+        if (!mInFlightCalls.isEmpty()) {
+            return;
+        }
+
+        // Persist what's left
+        persist();
+
+        // All done? Reset backoff and stop listening for connectivity
+        if (mOperations.isEmpty()) {
+            mRound = 0;
+            unregisterReceiver();
+            return;
+        }
+
+        // Back off before the next round
+        mRound++;
+        scheduleRetry();
+    }
+
+    private void scheduleRetry() {
+        // Retry already pending?
+        if (mRetryScheduled || mRunners.isEmpty()) {
+            return;
+        }
+
+        // Exponential backoff with full jitter (avoids synchronized retry storms)
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(mRound, 20));
+        long delay = (long) (mRandom.nextDouble() * cap);
+
+        // Log retry delay
+        Log.d(PushyLogging.TAG, "Retrying " + mOperations.size() + " queued operation(s) in " + delay + "ms");
+
+        // Schedule next round
+        mRetryScheduled = true;
+        mHandler.postDelayed(mRetryRunnable, delay);
+    }
+
+    private boolean isOnline() {
+        // Get connectivity manager
+        ConnectivityManager connectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        // Unknown? Assume online (failures then count as attempts)
+        if (connectivityManager == null) {
+            return true;
+        }
+
+        // Pre-Marshmallow devices only expose NetworkInfo
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return isConnectedLegacy(connectivityManager);
+        }
+
+        // Check active network
+        Network network = connectivityManager.getActiveNetwork();
+
+        // None (offline)?
+        if (network == null) {
+            return false;
+        }
+
+        // Able to reach the internet?
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(network);
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean isConnectedLegacy(ConnectivityManager connectivityManager) {
+        // Check active network (NetworkInfo is deprecated as of API 29, but the only option before API 23)
+        NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void registerReceiver() {
+        // Already listening?
+        if (mReceiverRegistered) {
+            return;
+        }
+
+        // Listen for connectivity changes while operations are queued
+        mContext.registerReceiver(mConnectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        mReceiverRegistered = true;
+    }
+
+    private void unregisterReceiver() {
+        // Not listening?
+        if (!mReceiverRegistered) {
+            return;
+        }
+
+        // Stop listening for connectivity changes
+        mContext.unregisterReceiver(mConnectivityReceiver);
+        mReceiverRegistered = false;
+    }
+
+    public EventChannel.StreamHandler createStreamHandler() {
+        // One handler per engine (each has its own sink)
+        return new EventChannel.StreamHandler() {
+            private EventChannel.EventSink mSink;
+
+            @Override
+            public void onListen(Object args, EventChannel.EventSink events) {
+                // Store sink for later
+                mSink = events;
+                mSinks.add(events);
+
+                // Send currently queued operations right away
+                for (Operation operation : mOperations.values()) {
+                    events.success(toMap(operation, "queued", null));
+                }
+            }
+
+            @Override
+            public void onCancel(Object args) {
+                // Stop notifying this engine
+                mSinks.remove(mSink);
+                mSink = null;
+            }
+        };
+    }
+
+    public Map<String, Object> getStats() {
+        // Prepare stats map
+        final Map<String, Object> stats = new HashMap<>();
+
+        // Populate counters
+        stats.put("pending", mOperations.size());
+        stats.put("queued", mQueuedCount);
+        stats.put("retries", mRetryCount);
+        stats.put("succeeded", mSucceededCount);
+        stats.put("failed", mFailedCount);
+        stats.put("online", isOnline());
+
+        // All done
+        return stats;
+    }
+
+    private void publish(Operation operation, String status, String error) {
+        // Snapshot progress event
+        Map<String, Object> event = toMap(operation, status, error);
+
+        // Notify all listening engines
+        for (EventChannel.EventSink sink : mSinks) {
+            sink.success(event);
+        }
+    }
+
+    private static Map<String, Object> toMap(Operation operation, String status, String error) {
+        // Prepare event map
+        Map<String, Object> event = new HashMap<>();
+
+        // Populate operation progress
+        event.put("id", operation.mId);
+        event.put("type", operation.mType);
+        event.put("args", operation.mArgs);
+        event.put("status", status);
+        event.put("attempt", operation.mAttempts);
+        event.put("error", error);
+
+        // All done
+        return event;
+    }
+
+    private void load() {
+        // Get persisted queue
+        String json = PushyPersistence.getSettings(mContext).getString(PushyPersistence.OPERATION_QUEUE, null);
+
+        // Nothing persisted?
+        if (json == null) {
+            return;
+        }
+
+        try {
+            // Parse operations array
+            JSONArray operations = new JSONArray(json);
+
+            // Traverse operations (in queue order)
+            for (int i = 0; i < operations.length(); i++) {
+                JSONObject item = operations.getJSONObject(i);
+
+                // Restore operation
+                Operation operation = new Operation();
+                operation.mId = ++mNextId;
+                operation.mType = item.getString("type");
+                operation.mAttempts = item.getInt("attempts");
+                operation.mArgs = new ArrayList<>();
+
+                // Restore arguments
+                JSONArray args = item.getJSONArray("args");
+
+                for (int j = 0; j < args.length(); j++) {
+                    operation.mArgs.add(args.isNull(j) ? null : args.getString(j));
+                }
+
+                // Add under its collapse key
+                mOperations.put(item.getString("key"), operation);
+            }
+        }
+        catch (JSONException e) {
+            // Log error to logcat (drop corrupt queue)
+            Log.e(PushyLogging.TAG, "Failed to load operation queue: " + e.getMessage(), e);
+            mOperations.clear();
+        }
+    }
+
+    private void persist() {
+        // Prepare operations array
+        JSONArray operations = new JSONArray();
+
+        try {
+            // Traverse operations (in queue order)
+            for (Map.Entry<String, Operation> entry : mOperations.entrySet()) {
+                JSONObject item = new JSONObject();
+
+                // Store operation
+                item.put("key", entry.getKey());
+                item.put("type", entry.getValue().mType);
+                item.put("attempts", entry.getValue().mAttempts);
+                item.put("args", new JSONArray(entry.getValue().mArgs));
+
+                operations.put(item);
+            }
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to persist operation queue: " + e.getMessage(), e);
+            return;
+        }
+
+        // Store queue in SharedPreferences (removed once empty)
+        if (mOperations.isEmpty()) {
+            PushyPersistence.getSettings(mContext).edit().remove(PushyPersistence.OPERATION_QUEUE).apply();
+        }
+        else {
+            PushyPersistence.getSettings(mContext).edit().putString(PushyPersistence.OPERATION_QUEUE, operations.toString()).apply();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class PushyPayloads {
+    public static Object encode(JSONObject notification, Context context) {
+        // Legacy format enabled? Send stringified JSON
+        if (PushyPersistence.isLegacyPayloadFormat(context)) {
+            return notification.toString();
+        }
+
+        // Send as native map (StandardMessageCodec keeps value types, no JSON string in between)
+        return toMap(notification);
+    }
+
+    public static List<Object> encode(List<JSONObject> notifications, Context context) {
+        // Prepare list of encoded payloads
+        List<Object> payloads = new ArrayList<>(notifications.size());
+
+        // Encode each notification
+        for (JSONObject notification : notifications) {
+            payloads.add(encode(notification, context));
+        }
+
+        // All done
+        return payloads;
+    }
+
+    public static Map<String, Object> toMap(JSONObject json) {
+        // Prepare map with same capacity
+        Map<String, Object> map = new HashMap<>(json.length());
+
+        // Traverse keys
+        Iterator<String> keys = json.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, toValue(json.opt(key)));
+        }
+
+        // All done
+        return map;
+    }
+
+    private static List<Object> toList(JSONArray json) {
+        // Prepare list with same capacity
+        List<Object> list = new ArrayList<>(json.length());
+
+        // Traverse items
+        for (int i = 0; i < json.length(); i++) {
+            list.add(toValue(json.opt(i)));
+        }
+
+        // All done
+        return list;
+    }
+
+    private static Object toValue(Object value) {
+        // Nested object?
+        if (value instanceof JSONObject) {
+            return toMap((JSONObject) value);
+        }
+
+        // Nested array?
+        if (value instanceof JSONArray) {
+            return toList((JSONArray) value);
+        }
+
+        // JSON null?
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        }
+
+        // Types supported by StandardMessageCodec as-is
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long || value instanceof Double) {
+            return value;
+        }
+
+        // Small integers
+        if (value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        }
+
+        // Other numbers (float, BigDecimal, ...)
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        // Anything else (same as JSONObject.toString())
+        return value.toString();
+    }
+}
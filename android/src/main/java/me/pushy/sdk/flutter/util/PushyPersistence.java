@@ -4,50 +4,71 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import androidx.preference.PreferenceManager;
 import android.util.Log;
 
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Set;
 
 import me.pushy.sdk.config.PushyLogging;
-import me.pushy.sdk.util.PushySingleton;
+import me.pushy.sdk.flutter.config.PushyIntentExtras;
 
 public class PushyPersistence {
     public static final String NOTIFICATION_ICON = "pushyNotificationIcon";
     public static final String PENDING_NOTIFICATIONS = "pushyPendingNotifications";
+    public static final String NOTIFICATION_BATCH_INTERVAL = "pushyNotificationBatchInterval";
+    public static final String LEGACY_PAYLOAD_FORMAT = "pushyLegacyPayloadFormat";
+    public static final String TOPIC_STATE = "pushyTopicState";
+    public static final String TOPIC_STATE_TOKEN = "pushyTopicStateToken";
+    public static final String PENDING_QUEUE_MAX_COUNT = "pushyPendingQueueMaxCount";
+    public static final String PENDING_QUEUE_MAX_BYTES = "pushyPendingQueueMaxBytes";
+    public static final String PENDING_QUEUE_EVICTION_POLICY = "pushyPendingQueueEvictionPolicy";
+    public static final String PENDING_QUEUE_DEFAULT_TTL = "pushyPendingQueueDefaultTtl";
+    public static final String LARGE_PAYLOAD_THRESHOLD = "pushyLargePayloadThreshold";
+    public static final String DEFERRED_START = "pushyDeferredStart";
+    public static final String OFFLINE_QUEUE_ENABLED = "pushyOfflineQueueEnabled";
+    public static final String OPERATION_QUEUE = "pushyOperationQueue";
+    public static final String PAYLOAD_DEDUPLICATION = "pushyPayloadDeduplication";
 
     public static SharedPreferences getSettings(Context context) {
-        // Get default app SharedPreferences
-        return PreferenceManager.getDefaultSharedPreferences(context);
+        // Get plugin settings store (in-memory snapshot of default app SharedPreferences, written behind)
+        return PushySettingsStore.getInstance(context);
     }
 
-    public static void persistNotification(JSONObject notification, Context context) {
-        // Get pending notifications from SharedPreferences
-        JSONArray pendingNotifications = getPendingNotifications(context);
+    public static PushyNotificationJournal getPendingNotificationJournal(Context context) {
+        // Get journal singleton
+        PushyNotificationJournal journal = PushyNotificationJournal.getInstance(context);
+
+        // Apply configured capacity, eviction policy & default TTL
+        SharedPreferences settings = getSettings(context);
+        journal.setLimits(settings.getInt(PENDING_QUEUE_MAX_COUNT, 0), settings.getLong(PENDING_QUEUE_MAX_BYTES, 0), settings.getInt(PENDING_QUEUE_EVICTION_POLICY, PushyNotificationJournal.POLICY_DROP_OLDEST), settings.getLong(PENDING_QUEUE_DEFAULT_TTL, 0));
 
-        // Add new notification
-        pendingNotifications.put(notification);
+        // Move notifications queued by older plugin versions into the journal
+        migrateLegacyPendingNotifications(journal, context);
+
+        // All done
+        return journal;
+    }
 
+    public static void persistNotification(JSONObject notification, Context context) {
         try {
-            // Store notification JSON array in SharedPreferences
-            getSettings(context).edit().putString(PushyPersistence.PENDING_NOTIFICATIONS, pendingNotifications.toString()).commit();
+            // Append notification to journal (O(1), earlier records untouched), with optional priority & TTL (in seconds)
+            getPendingNotificationJournal(context).append(notification, notification.optInt(PushyIntentExtras.PRIORITY, 0), notification.optLong(PushyIntentExtras.TTL, 0) * 1000);
         }
-        catch (OutOfMemoryError e) {
+        catch (IOException e) {
             // Log error to logcat
-            Log.e(PushyLogging.TAG, "Failed to persist JSON array:" + e.getMessage(), e);
-
-            // Clear pending notifications
-            clearPendingNotifications(context);
+            Log.e(PushyLogging.TAG, "Failed to persist notification:" + e.getMessage(), e);
         }
     }
 
     public static void setNotificationIcon(String icon, Context context) {
         // Store notification icon in SharedPreferences
-        getSettings(context).edit().putString(PushyPersistence.NOTIFICATION_ICON, icon).commit();
+        getSettings(context).edit().putString(PushyPersistence.NOTIFICATION_ICON, icon).apply();
+
+        // Drop cached icon resource ID
+        PushyNotification.invalidateNotificationIcon();
     }
 
     public static String getNotificationIcon( Context context) {
@@ -55,25 +76,95 @@ public class PushyPersistence {
         return getSettings(context).getString(PushyPersistence.NOTIFICATION_ICON, null);
     }
 
-    public static JSONArray getPendingNotifications(Context context) {
-        // Get pending notifications from SharedPreferences
-        String pendingNotifications = PushySingleton.getSettings(context).getString(PENDING_NOTIFICATIONS, null);
+    public static void setNotificationBatchInterval(int interval, Context context) {
+        // Store batch interval in SharedPreferences (read when the process is started by a notification)
+        getSettings(context).edit().putInt(PushyPersistence.NOTIFICATION_BATCH_INTERVAL, interval).apply();
+    }
 
-        // Prepare JSON array with notifications
-        JSONArray json = new JSONArray();
+    public static int getNotificationBatchInterval(Context context) {
+        // Get batch interval from SharedPreferences (0 = deliver individually)
+        return getSettings(context).getInt(PushyPersistence.NOTIFICATION_BATCH_INTERVAL, 0);
+    }
 
-        // Nothing persisted?
-        if (pendingNotifications == null) {
-            return json;
-        }
+    public static void setLegacyPayloadFormat(boolean value, Context context) {
+        // Store payload format in SharedPreferences
+        getSettings(context).edit().putBoolean(PushyPersistence.LEGACY_PAYLOAD_FORMAT, value).apply();
+    }
+
+    public static boolean isLegacyPayloadFormat(Context context) {
+        // Get payload format from SharedPreferences (false = native maps)
+        return getSettings(context).getBoolean(PushyPersistence.LEGACY_PAYLOAD_FORMAT, false);
+    }
+
+    public static void setPayloadDeduplication(boolean value, Context context) {
+        // Store payload deduplication mode in SharedPreferences (read when the process is started by a notification)
+        getSettings(context).edit().putBoolean(PushyPersistence.PAYLOAD_DEDUPLICATION, value).apply();
+    }
+
+    public static boolean isPayloadDeduplication(Context context) {
+        // Get payload deduplication mode from SharedPreferences (false = only dedupe by message ID)
+        return getSettings(context).getBoolean(PushyPersistence.PAYLOAD_DEDUPLICATION, false);
+    }
+
+    public static void setPendingQueueLimits(int maxCount, long maxBytes, int evictionPolicy, long defaultTtlMs, Context context) {
+        // Store queue limits in SharedPreferences (read when the process is started by a notification)
+        getSettings(context).edit()
+                .putInt(PENDING_QUEUE_MAX_COUNT, maxCount)
+                .putLong(PENDING_QUEUE_MAX_BYTES, maxBytes)
+                .putInt(PENDING_QUEUE_EVICTION_POLICY, evictionPolicy)
+                .putLong(PENDING_QUEUE_DEFAULT_TTL, defaultTtlMs)
+                .apply();
+
+        // Apply to journal right away
+        PushyNotificationJournal.getInstance(context).setLimits(maxCount, maxBytes, evictionPolicy, defaultTtlMs);
+    }
+
+    public static void setLargePayloadThreshold(int bytes, Context context) {
+        // Store threshold in SharedPreferences (read when the process is started by a notification)
+        getSettings(context).edit().putInt(PushyPersistence.LARGE_PAYLOAD_THRESHOLD, bytes).apply();
+    }
+
+    public static int getLargePayloadThreshold(Context context) {
+        // Get threshold from SharedPreferences (0 = always deliver inline)
+        return getSettings(context).getInt(PushyPersistence.LARGE_PAYLOAD_THRESHOLD, 0);
+    }
+
+    public static void setDeferredStart(boolean value, Context context) {
+        // Store deferred start mode in SharedPreferences (read when the plugin attaches)
+        getSettings(context).edit().putBoolean(PushyPersistence.DEFERRED_START, value).apply();
+    }
+
+    public static boolean isDeferredStart(Context context) {
+        // Get deferred start mode from SharedPreferences (false = start right away)
+        return getSettings(context).getBoolean(PushyPersistence.DEFERRED_START, false);
+    }
+
+    public static void setOfflineQueueEnabled(boolean value, Context context) {
+        // Store offline queue mode in SharedPreferences
+        getSettings(context).edit().putBoolean(PushyPersistence.OFFLINE_QUEUE_ENABLED, value).apply();
+    }
+
+    public static boolean isOfflineQueueEnabled(Context context) {
+        // Get offline queue mode from SharedPreferences (false = reject offline failures right away)
+        return getSettings(context).getBoolean(PushyPersistence.OFFLINE_QUEUE_ENABLED, false);
+    }
+
+    public static JSONArray getPendingNotifications(Context context) {
+        // Prepare JSON array with notifications
+        final JSONArray json = new JSONArray();
 
         try {
-            // Attempt to parse string into JSON array
-            json = new JSONArray(pendingNotifications);
+            // Read all pending notifications from journal
+            getPendingNotificationJournal(context).read(new PushyNotificationJournal.Reader() {
+                @Override
+                public void onNotification(JSONObject notification) {
+                    json.put(notification);
+                }
+            });
         }
-        catch (JSONException e) {
+        catch (IOException e) {
             // Log error to logcat
-            Log.e(PushyLogging.TAG, "Failed to convert JSON string into array:" + e.getMessage(), e);
+            Log.e(PushyLogging.TAG, "Failed to read pending notifications:" + e.getMessage(), e);
         }
 
         // Always return JSON array
@@ -81,8 +172,41 @@ public class PushyPersistence {
     }
 
     public static void clearPendingNotifications(Context context) {
-        // Clear the pending notifications from SharedPreferences
-        PushySingleton.getSettings(context).edit().remove(PENDING_NOTIFICATIONS).commit();
+        try {
+            // Clear the pending notifications journal
+            getPendingNotificationJournal(context).clear();
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to clear pending notifications:" + e.getMessage(), e);
+        }
+    }
+
+    private static void migrateLegacyPendingNotifications(PushyNotificationJournal journal, Context context) {
+        // Get legacy pending notifications from SharedPreferences
+        String pendingNotifications = getSettings(context).getString(PENDING_NOTIFICATIONS, null);
+
+        // Nothing to migrate?
+        if (pendingNotifications == null) {
+            return;
+        }
+
+        try {
+            // Attempt to parse string into JSON array
+            JSONArray json = new JSONArray(pendingNotifications);
+
+            // Append each notification to journal
+            for (int i = 0; i < json.length(); i++) {
+                journal.append(json.getJSONObject(i), 0, 0);
+            }
+        }
+        catch (Exception e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to migrate pending notifications:" + e.getMessage(), e);
+        }
+
+        // Remove legacy pending notifications from SharedPreferences
+        getSettings(context).edit().remove(PENDING_NOTIFICATIONS).apply();
     }
 
     public static JSONObject getJSONObjectFromIntentExtras(Intent intent) {
@@ -92,6 +216,11 @@ public class PushyPersistence {
         // Get intent extras
         Bundle bundle = intent.getExtras();
 
+        // No extras?
+        if (bundle == null) {
+            return json;
+        }
+
         // Get JSON key names
         Set<String> keys = bundle.keySet();
 
@@ -101,10 +230,9 @@ public class PushyPersistence {
                 // Attempt to insert the key and its value into the JSONObject
                 json.put(key, bundle.get(key));
             }
-            catch (JSONException e) {
-                // Log error to logcat and stop execution
+            catch (Exception e) {
+                // Log error to logcat and skip this key (keep the rest of the payload)
                 Log.e(PushyLogging.TAG, "Failed to insert intent extra into JSONObject:" + e.getMessage(), e);
-                return json;
             }
         }
 
@@ -0,0 +1,121 @@
+package me.pushy.sdk.flutter.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+public class PushyPluginMetrics {
+    // Log-scale latency buckets in microseconds
+    private static final int BUCKET_COUNT = 28;
+
+    private final Map<String, MethodMetrics> mMethods = new HashMap<>();
+
+    public Result track(final String method, final Result result) {
+        // Record invocation
+        synchronized (this) {
+            getMethodMetrics(method).mInvocationCount++;
+        }
+
+        // Measure latency until the result is actually delivered
+        final long startNanos = System.nanoTime();
+
+        // Wrap result to record its outcome
+        return new Result() {
+            @Override
+            public void success(Object value) {
+                // Record latency
+                record(method, startNanos, false);
+
+                // Resolve the method
+                result.success(value);
+            }
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                // Record latency & error
+                record(method, startNanos, true);
+
+                // Reject the method
+                result.error(errorCode, errorMessage, errorDetails);
+            }
+
+            @Override
+            public void notImplemented() {
+                // Record latency & error
+                record(method, startNanos, true);
+
+                // Not implemented
+                result.notImplemented();
+            }
+        };
+    }
+
+    public synchronized Map<String, Object> getMetrics() {
+        // Prepare metrics map (keyed by method name)
+        Map<String, Object> metrics = new HashMap<>();
+
+        // Traverse tracked methods
+        for (Map.Entry<String, MethodMetrics> entry : mMethods.entrySet()) {
+            MethodMetrics method = entry.getValue();
+
+            // Populate counters & latency percentiles
+            Map<String, Object> values = new HashMap<>();
+            values.put("count", method.mInvocationCount);
+            values.put("errorCount", method.mErrorCount);
+            values.put("p50Ms", method.mLatency.getPercentile(0.50) / 1000.0);
+            values.put("p95Ms", method.mLatency.getPercentile(0.95) / 1000.0);
+            values.put("p99Ms", method.mLatency.getPercentile(0.99) / 1000.0);
+            values.put("maxMs", method.mLatency.getMax() / 1000.0);
+
+            // Add to metrics map
+            metrics.put(entry.getKey(), values);
+        }
+
+        // All done
+        return metrics;
+    }
+
+    public synchronized void reset() {
+        // Drop all recorded metrics
+        mMethods.clear();
+    }
+
+    private synchronized void record(String method, long startNanos, boolean error) {
+        // Get method metrics
+        MethodMetrics metrics = getMethodMetrics(method);
+
+        // Compute latency
+        long nanos = System.nanoTime() - startNanos;
+
+        // Count error
+        if (error) {
+            metrics.mErrorCount++;
+        }
+
+        // Add to histogram
+        metrics.mLatency.record(nanos / 1000);
+    }
+
+    private MethodMetrics getMethodMetrics(String method) {
+        // Get existing metrics
+        MethodMetrics metrics = mMethods.get(method);
+
+        // First invocation of this method?
+        if (metrics == null) {
+            metrics = new MethodMetrics();
+            mMethods.put(method, metrics);
+        }
+
+        // All done
+        return metrics;
+    }
+
+    private static class MethodMetrics {
+        long mInvocationCount;
+        long mErrorCount;
+
+        // Completed calls
+        final PushyLatencyHistogram mLatency = new PushyLatencyHistogram(BUCKET_COUNT);
+    }
+}
@@ -0,0 +1,174 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+import me.pushy.sdk.Pushy;
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.model.PushyDeviceCredentials;
+
+// In-memory copy of the device's registration state (token, auth key, registered flag)
+// Loaded off the platform thread, updated by register() / setDeviceCredentials(), pushed to Dart on change
+public class PushyRegistrationState {
+    private static PushyRegistrationState mInstance;
+
+    private final List<EventChannel.EventSink> mSinks = new ArrayList<>();
+
+    private volatile boolean mLoaded;
+    private volatile boolean mRegistered;
+    private volatile String mToken;
+    private volatile String mAuthKey;
+
+    public static synchronized PushyRegistrationState getInstance() {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyRegistrationState();
+        return mInstance;
+    }
+
+    public void load(final Context context, PushyIOExecutor executor) {
+        // Already loaded?
+        if (mLoaded) {
+            return;
+        }
+
+        // Read persisted credentials off the platform thread
+        executor.execute("loadRegistrationState", new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // Read from Pushy SDK & notify listeners
+                refresh(context);
+                return null;
+            }
+        }, new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Listeners already notified
+            }
+
+            @Override
+            public void onError(String message) {
+                // Log error to logcat (state is read on first use instead)
+                Log.e(PushyLogging.TAG, "Failed to load registration state: " + message);
+            }
+        });
+    }
+
+    public void refresh(Context context) {
+        // Read from Pushy SDK (SharedPreferences)
+        PushyDeviceCredentials credentials = Pushy.getDeviceCredentials(context);
+
+        // Update cache (notifies listeners if changed)
+        update(Pushy.isRegistered(context), credentials != null ? credentials.token : null, credentials != null ? credentials.authKey : null);
+    }
+
+    public boolean isRegistered(Context context) {
+        // Not loaded yet? Read once on the calling thread
+        if (!mLoaded) {
+            refresh(context);
+        }
+
+        // Serve from memory
+        return mRegistered;
+    }
+
+    public List<String> getDeviceCredentials(Context context) {
+        // Not loaded yet? Read once on the calling thread
+        if (!mLoaded) {
+            refresh(context);
+        }
+
+        // Serve from memory (values may be null)
+        List<String> credentials = new ArrayList<>(2);
+        credentials.add(mToken);
+        credentials.add(mAuthKey);
+        return credentials;
+    }
+
+    private void update(boolean registered, String token, String authKey) {
+        synchronized (this) {
+            // Unchanged?
+            if (mLoaded && registered == mRegistered && equals(token, mToken) && equals(authKey, mAuthKey)) {
+                return;
+            }
+
+            // Update cache
+            mRegistered = registered;
+            mToken = token;
+            mAuthKey = authKey;
+            mLoaded = true;
+        }
+
+        // Push new state to Dart (on the main thread)
+        PushyMainThreadDispatcher.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                publish();
+            }
+        });
+    }
+
+    public EventChannel.StreamHandler createStreamHandler() {
+        // One handler per engine (each has its own sink)
+        return new EventChannel.StreamHandler() {
+            private EventChannel.EventSink mSink;
+
+            @Override
+            public void onListen(Object args, EventChannel.EventSink events) {
+                // Store sink for later
+                mSink = events;
+                mSinks.add(events);
+
+                // Send current state right away (if known)
+                if (mLoaded) {
+                    events.success(toMap());
+                }
+            }
+
+            @Override
+            public void onCancel(Object args) {
+                // Stop notifying this engine
+                mSinks.remove(mSink);
+                mSink = null;
+            }
+        };
+    }
+
+    private void publish() {
+        // Snapshot current state
+        Map<String, Object> state = toMap();
+
+        // Notify all listening engines
+        for (EventChannel.EventSink sink : mSinks) {
+            sink.success(state);
+        }
+    }
+
+    private Map<String, Object> toMap() {
+        // Prepare state map
+        Map<String, Object> state = new HashMap<>();
+
+        // Populate registration state
+        state.put("registered", mRegistered);
+        state.put("token", mToken);
+        state.put("authKey", mAuthKey);
+
+        // All done
+        return state;
+    }
+
+    private static boolean equals(String a, String b) {
+        // Null-safe comparison
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,337 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import me.pushy.sdk.flutter.config.PushySharedPrefs;
+
+// Plugin settings served from an in-memory snapshot of the plugin's own keys in the default SharedPreferences
+// Writes go through the underlying SharedPreferences: apply() is queued for disk (and awaited by the framework before the process may be killed), commit() writes synchronously
+// The snapshot follows writes made elsewhere (host app, Pushy SDK, another process component) via a change listener
+public class PushySettingsStore implements SharedPreferences {
+    private static PushySettingsStore mInstance;
+
+    // Keys owned by the plugin (the default SharedPreferences also hold the host app's & the Pushy SDK's keys)
+    private static final Set<String> PLUGIN_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            PushyPersistence.NOTIFICATION_ICON,
+            PushyPersistence.PENDING_NOTIFICATIONS,
+            PushyPersistence.NOTIFICATION_BATCH_INTERVAL,
+            PushyPersistence.LEGACY_PAYLOAD_FORMAT,
+            PushyPersistence.TOPIC_STATE,
+            PushyPersistence.TOPIC_STATE_TOKEN,
+            PushyPersistence.PENDING_QUEUE_MAX_COUNT,
+            PushyPersistence.PENDING_QUEUE_MAX_BYTES,
+            PushyPersistence.PENDING_QUEUE_EVICTION_POLICY,
+            PushyPersistence.PENDING_QUEUE_DEFAULT_TTL,
+            PushyPersistence.LARGE_PAYLOAD_THRESHOLD,
+            PushyPersistence.DEFERRED_START,
+            PushyPersistence.OFFLINE_QUEUE_ENABLED,
+            PushyPersistence.OPERATION_QUEUE,
+            PushyPersistence.PAYLOAD_DEDUPLICATION,
+            PushySharedPrefs.FLUTTER_ISOLATE_ID,
+            PushySharedPrefs.FLUTTER_NOTIFICATION_HANDLER_ID,
+            PushySharedPrefs.FLUTTER_ENGINE_GROUP,
+            PushySharedPrefs.FLUTTER_ENGINE_PREWARM,
+            PushySharedPrefs.FLUTTER_ENGINE_IDLE_TIMEOUT,
+            PushySharedPrefs.FLUTTER_DELIVERY_WINDOW
+    )));
+
+    // Marks a removed key in an editor's changes
+    private static final Object REMOVED = new Object();
+
+    private final SharedPreferences mPreferences;
+    private final Map<String, Object> mSnapshot = new HashMap<>();
+
+    // Keeps the snapshot in sync with writes made elsewhere (held strongly, SharedPreferences only keeps a weak reference)
+    private final OnSharedPreferenceChangeListener mChangeListener = new OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences preferences, String key) {
+            // Cleared (reported as a null key on API 30+)? Reload all plugin keys
+            if (key == null) {
+                reload();
+                return;
+            }
+
+            // Plugin key changed? Refresh it
+            if (PLUGIN_KEYS.contains(key)) {
+                refresh(key);
+            }
+        }
+    };
+
+    public static synchronized PushySettingsStore getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushySettingsStore(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushySettingsStore(Context context) {
+        // Underlying default app SharedPreferences
+        mPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+
+        // Follow writes made elsewhere
+        mPreferences.registerOnSharedPreferenceChangeListener(mChangeListener);
+
+        // Load snapshot once
+        reload();
+    }
+
+    @Override
+    public synchronized Map<String, ?> getAll() {
+        // Copy of snapshot (plugin keys only)
+        return new HashMap<>(mSnapshot);
+    }
+
+    @Override
+    public synchronized String getString(String key, String defValue) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof String ? (String) value : defValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Set<String> getStringSet(String key, Set<String> defValues) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof Set ? new HashSet<>((Set<String>) value) : defValues;
+    }
+
+    @Override
+    public synchronized int getInt(String key, int defValue) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof Integer ? (Integer) value : defValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defValue) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof Long ? (Long) value : defValue;
+    }
+
+    @Override
+    public synchronized float getFloat(String key, float defValue) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof Float ? (Float) value : defValue;
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defValue) {
+        // Serve from snapshot (no disk I/O)
+        Object value = get(key);
+        return value instanceof Boolean ? (Boolean) value : defValue;
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        // Serve from snapshot (no disk I/O)
+        return get(key) != null;
+    }
+
+    @Override
+    public Editor edit() {
+        // Collects changes until apply() / commit()
+        return new StoreEditor();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        // Fired when changes reach the underlying SharedPreferences
+        mPreferences.registerOnSharedPreferenceChangeListener(listener);
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        // Registered on underlying SharedPreferences
+        mPreferences.unregisterOnSharedPreferenceChangeListener(listener);
+    }
+
+    private Object get(String key) {
+        // Reject keys the plugin doesn't own (the store never serves or writes anyone else's settings)
+        checkKey(key);
+
+        // Snapshot value (null if unset)
+        return mSnapshot.get(key);
+    }
+
+    private synchronized void reload() {
+        // Underlying values (host app & SDK keys included)
+        Map<String, ?> values = mPreferences.getAll();
+
+        // Keep plugin keys only
+        mSnapshot.clear();
+
+        for (String key : PLUGIN_KEYS) {
+            Object value = values.get(key);
+
+            if (value != null) {
+                mSnapshot.put(key, value);
+            }
+        }
+    }
+
+    private synchronized void refresh(String key) {
+        // Current underlying value (null if removed)
+        Object value = mPreferences.getAll().get(key);
+
+        // Update snapshot
+        if (value != null) {
+            mSnapshot.put(key, value);
+        }
+        else {
+            mSnapshot.remove(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Editor applyChanges(Map<String, Object> changes, boolean clear) {
+        // Single underlying editor for all changes
+        SharedPreferences.Editor editor = mPreferences.edit();
+
+        // Clear requested? Remove plugin keys only (host app & SDK keys stay)
+        if (clear) {
+            for (String key : mSnapshot.keySet()) {
+                editor.remove(key);
+            }
+
+            mSnapshot.clear();
+        }
+
+        // Apply all changes to snapshot & editor at once
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String key = change.getKey();
+            Object value = change.getValue();
+
+            if (value == REMOVED) {
+                mSnapshot.remove(key);
+                editor.remove(key);
+                continue;
+            }
+
+            // Visible to readers right away
+            mSnapshot.put(key, value);
+
+            if (value instanceof String) {
+                editor.putString(key, (String) value);
+            }
+            else if (value instanceof Integer) {
+                editor.putInt(key, (Integer) value);
+            }
+            else if (value instanceof Long) {
+                editor.putLong(key, (Long) value);
+            }
+            else if (value instanceof Float) {
+                editor.putFloat(key, (Float) value);
+            }
+            else if (value instanceof Boolean) {
+                editor.putBoolean(key, (Boolean) value);
+            }
+            else if (value instanceof Set) {
+                editor.putStringSet(key, (Set<String>) value);
+            }
+        }
+
+        // Caller applies or commits it
+        return editor;
+    }
+
+    private static void checkKey(String key) {
+        // Not a plugin setting?
+        if (!PLUGIN_KEYS.contains(key)) {
+            throw new IllegalArgumentException("Not a Pushy plugin setting: " + key);
+        }
+    }
+
+    private class StoreEditor implements Editor {
+        private final Map<String, Object> mChanges = new HashMap<>();
+        private boolean mClear;
+
+        @Override
+        public Editor putString(String key, String value) {
+            checkKey(key);
+            mChanges.put(key, value != null ? value : REMOVED);
+            return this;
+        }
+
+        @Override
+        public Editor putStringSet(String key, Set<String> values) {
+            checkKey(key);
+            mChanges.put(key, values != null ? new HashSet<>(values) : REMOVED);
+            return this;
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            checkKey(key);
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            checkKey(key);
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            checkKey(key);
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            checkKey(key);
+            mChanges.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor remove(String key) {
+            checkKey(key);
+            mChanges.put(key, REMOVED);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            mClear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            // Visible immediately, written to disk before returning (SharedPreferences contract)
+            synchronized (PushySettingsStore.this) {
+                return applyChanges(mChanges, mClear).commit();
+            }
+        }
+
+        @Override
+        public void apply() {
+            // Visible immediately, queued for disk by the underlying SharedPreferences (survives the process being stopped)
+            synchronized (PushySettingsStore.this) {
+                applyChanges(mChanges, mClear).apply();
+            }
+        }
+    }
+}
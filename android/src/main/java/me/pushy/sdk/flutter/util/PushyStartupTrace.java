@@ -0,0 +1,135 @@
+package me.pushy.sdk.flutter.util;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Times the plugin's startup phases (also emitted as systrace sections) and defers non-critical work until the main thread is idle
+public class PushyStartupTrace {
+    // Run deferred work at the latest this long after it was scheduled (main thread never idle)
+    private static final long MAX_DEFER_MS = 3000;
+
+    private static PushyStartupTrace mInstance;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final long mOriginMs;
+    private final Map<String, Long> mStarts = new HashMap<>();
+    private final Map<String, Map<String, Object>> mPhases = new LinkedHashMap<>();
+
+    public static synchronized PushyStartupTrace getInstance() {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyStartupTrace();
+        return mInstance;
+    }
+
+    private PushyStartupTrace() {
+        // Measure relative to process start (if available), otherwise to first use
+        mOriginMs = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime();
+    }
+
+    public synchronized void begin(String phase) {
+        // Record start time
+        mStarts.put(phase, SystemClock.elapsedRealtime());
+
+        // Emit systrace section (API 18+)
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection("Pushy:" + phase);
+        }
+    }
+
+    public synchronized void end(String phase) {
+        // Close systrace section (API 18+)
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+
+        // Get start time
+        Long start = mStarts.remove(phase);
+
+        // Never began?
+        if (start == null) {
+            return;
+        }
+
+        // Record phase offset (since process start) & duration
+        Map<String, Object> values = new HashMap<>();
+        values.put("startMs", start - mOriginMs);
+        values.put("durationMs", SystemClock.elapsedRealtime() - start);
+
+        // Add to report (first occurrence wins, later ones are warm calls)
+        if (!mPhases.containsKey(phase)) {
+            mPhases.put(phase, values);
+        }
+    }
+
+    public void runDeferred(final String phase, boolean deferred, final Runnable task) {
+        // Not deferred? Run right away
+        if (!deferred) {
+            run(phase, task);
+            return;
+        }
+
+        // Run once, whichever comes first: main thread idle or max delay
+        final AtomicBoolean ran = new AtomicBoolean();
+        final Runnable once = new Runnable() {
+            @Override
+            public void run() {
+                if (ran.compareAndSet(false, true)) {
+                    PushyStartupTrace.this.run(phase, task);
+                }
+            }
+        };
+
+        // Fallback in case the main thread stays busy
+        mHandler.postDelayed(once, MAX_DEFER_MS);
+
+        // Register idle handler on the main thread (MessageQueue of the calling thread)
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        // First frame rendered & no pending messages
+                        mHandler.removeCallbacks(once);
+                        once.run();
+
+                        // Remove idle handler
+                        return false;
+                    }
+                });
+            }
+        });
+    }
+
+    public synchronized Map<String, Object> getReport() {
+        // Copy of recorded phases (keyed by phase name, in start order)
+        return new LinkedHashMap<String, Object>(mPhases);
+    }
+
+    private void run(String phase, Runnable task) {
+        // Time task as a startup phase
+        begin(phase);
+
+        try {
+            task.run();
+        }
+        finally {
+            end(phase);
+        }
+    }
+}
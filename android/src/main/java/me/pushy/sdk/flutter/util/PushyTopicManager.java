@@ -0,0 +1,408 @@
+package me.pushy.sdk.flutter.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import me.pushy.sdk.Pushy;
+import me.pushy.sdk.config.PushyLogging;
+
+// Process-wide topic subscription state, shared by all attached engines (one cache, one in-flight batch)
+public class PushyTopicManager {
+    private static final long BATCH_WINDOW_MS = 250;
+
+    private static PushyTopicManager mInstance;
+
+    private final Context mContext;
+    private final PushyIOExecutor mIOExecutor;
+    private final Handler mHandler;
+
+    // Last known server-side state per topic (true = subscribed, false = unsubscribed, absent = unknown)
+    private final Map<String, Boolean> mTopicState = new HashMap<>();
+
+    // Changes waiting for the batch window to elapse (and the callers waiting on each of their topics)
+    private final Map<String, Boolean> mPendingChanges = new LinkedHashMap<>();
+    private final Map<Waiter, List<String>> mPendingWaiters = new LinkedHashMap<>();
+
+    // Changes currently being sent
+    private final Map<String, Boolean> mInFlightChanges = new LinkedHashMap<>();
+    private final Map<Waiter, List<String>> mInFlightWaiters = new LinkedHashMap<>();
+
+    private String mDeviceToken;
+    private boolean mFlushScheduled;
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    // A subscribe / unsubscribe call, settled once every batch carrying its topics settled
+    private static class Waiter {
+        final PushyIOExecutor.Callback mCallback;
+
+        int mBatchCount;
+        String mError;
+
+        Waiter(PushyIOExecutor.Callback callback) {
+            this.mCallback = callback;
+        }
+    }
+
+    public static synchronized PushyTopicManager getInstance(Context context) {
+        // Check for existing instance
+        if (mInstance != null) {
+            return mInstance;
+        }
+
+        // Initialize a new one and return it
+        mInstance = new PushyTopicManager(context.getApplicationContext());
+        return mInstance;
+    }
+
+    private PushyTopicManager(Context context) {
+        // Store context for later
+        this.mContext = context;
+
+        // Own executor (outlives any single engine's executor)
+        this.mIOExecutor = new PushyIOExecutor();
+
+        // Batch window timer runs on the main looper
+        this.mHandler = new Handler(Looper.getMainLooper());
+
+        // Load persisted topic state
+        loadTopicState();
+    }
+
+    public PushyIOExecutor getIOExecutor() {
+        // Exposed so executor config applies to topic batches too
+        return mIOExecutor;
+    }
+
+    public void subscribe(String[] topics, PushyIOExecutor.Callback callback) {
+        // Queue subscription changes
+        enqueue(topics, true, callback);
+    }
+
+    public void unsubscribe(String[] topics, PushyIOExecutor.Callback callback) {
+        // Queue unsubscription changes
+        enqueue(topics, false, callback);
+    }
+
+    public synchronized void onDeviceTokenChanged(String token) {
+        // Same device token? Server-side topic state is still valid
+        if (token == null || token.equals(mDeviceToken)) {
+            return;
+        }
+
+        // New device token starts out with no topic subscriptions
+        mTopicState.clear();
+
+        // Store new token
+        mDeviceToken = token;
+
+        // Persist reset state
+        persistTopicState();
+    }
+
+    public void shutdown() {
+        // Callers waiting on the pending batch
+        List<Waiter> waiters;
+
+        synchronized (this) {
+            // Stop batch window timer
+            mHandler.removeCallbacks(mFlushRunnable);
+            mFlushScheduled = false;
+
+            // Drop queued changes (no engine left to report to)
+            mPendingChanges.clear();
+
+            // Grab their callers (in-flight batch settles on its own)
+            waiters = new ArrayList<>(mPendingWaiters.keySet());
+            mPendingWaiters.clear();
+        }
+
+        // Reject them rather than leaving them unsettled
+        for (Waiter waiter : waiters) {
+            waiter.mCallback.onError("Topic change cancelled, plugin detached");
+        }
+    }
+
+    private void enqueue(String[] topics, boolean subscribe, PushyIOExecutor.Callback callback) {
+        // Topics this call waits on, per batch
+        List<String> pendingTopics = new ArrayList<>();
+        List<String> inFlightTopics = new ArrayList<>();
+        Waiter waiter = new Waiter(callback);
+
+        synchronized (this) {
+            // Traverse requested topics
+            for (String topic : topics) {
+                // Topic state once the in-flight batch (if any) settles
+                Boolean effectiveState = mInFlightChanges.containsKey(topic) ? mInFlightChanges.get(topic) : mTopicState.get(topic);
+
+                // Already in (or heading to) the requested state?
+                if (effectiveState != null && effectiveState == subscribe) {
+                    // Cancel out any opposite pending change
+                    mPendingChanges.remove(topic);
+
+                    // Wait for the in-flight change to settle, if that's where the state comes from
+                    if (mInFlightChanges.containsKey(topic)) {
+                        inFlightTopics.add(topic);
+                    }
+
+                    continue;
+                }
+
+                // Queue change (overrides any opposite pending change)
+                mPendingChanges.put(topic, subscribe);
+                pendingTopics.add(topic);
+            }
+
+            // Attach caller to each batch it depends on
+            if (!pendingTopics.isEmpty()) {
+                mPendingWaiters.put(waiter, pendingTopics);
+                waiter.mBatchCount++;
+            }
+
+            if (!inFlightTopics.isEmpty()) {
+                mInFlightWaiters.put(waiter, inFlightTopics);
+                waiter.mBatchCount++;
+            }
+
+            // Schedule flush if needed (also settles callers whose changes were cancelled out)
+            if (!mPendingChanges.isEmpty() || !mPendingWaiters.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+
+        // No-op change? Resolve right away without a round trip
+        if (waiter.mBatchCount == 0) {
+            callback.onSuccess("success");
+        }
+    }
+
+    private synchronized void scheduleFlush() {
+        // Already scheduled or a batch is in flight (it reschedules when done)
+        if (mFlushScheduled || !mInFlightChanges.isEmpty()) {
+            return;
+        }
+
+        // Send whatever accumulated once the window elapses
+        mFlushScheduled = true;
+        mHandler.postDelayed(mFlushRunnable, BATCH_WINDOW_MS);
+    }
+
+    private void flush() {
+        // Topics to send in this batch
+        final String[] subscribeTopics;
+        final String[] unsubscribeTopics;
+
+        // Topics confirmed by the server (a mixed batch may partly succeed)
+        final Set<String> applied = Collections.synchronizedSet(new HashSet<String>());
+
+        // Callers settled without a round trip
+        List<Waiter> settled;
+
+        synchronized (this) {
+            // Timer fired
+            mFlushScheduled = false;
+
+            // Previous batch still in flight (it reschedules when done)?
+            if (!mInFlightChanges.isEmpty()) {
+                return;
+            }
+
+            // Move pending changes & their callers into flight
+            mInFlightChanges.putAll(mPendingChanges);
+            mInFlightWaiters.putAll(mPendingWaiters);
+            mPendingChanges.clear();
+            mPendingWaiters.clear();
+
+            // Every pending change cancelled out by an opposite call? Settle its callers without a round trip
+            if (mInFlightChanges.isEmpty()) {
+                settled = onBatchSettled(applied, null);
+            }
+            else {
+                settled = null;
+            }
+
+            // Split into subscribe / unsubscribe batches
+            subscribeTopics = getTopics(mInFlightChanges, true);
+            unsubscribeTopics = getTopics(mInFlightChanges, false);
+        }
+
+        // Nothing to send?
+        if (settled != null) {
+            settle(settled);
+            return;
+        }
+
+        // Log batch size
+        Log.d(PushyLogging.TAG, "Sending topic batch (" + subscribeTopics.length + " subscribe, " + unsubscribeTopics.length + " unsubscribe)");
+
+        // Run network I/O in background thread
+        mIOExecutor.execute("topicBatch", new PushyIOExecutor.Task() {
+            @Override
+            public Object run() throws Exception {
+                // Subscribe in a single round trip
+                if (subscribeTopics.length > 0) {
+                    Pushy.subscribe(subscribeTopics, mContext);
+                    onBatchApplied(subscribeTopics, true, applied);
+                }
+
+                // Unsubscribe in a single round trip
+                if (unsubscribeTopics.length > 0) {
+                    Pushy.unsubscribe(unsubscribeTopics, mContext);
+                    onBatchApplied(unsubscribeTopics, false, applied);
+                }
+
+                // Resolve with success
+                return "success";
+            }
+        }, new PushyIOExecutor.Callback() {
+            @Override
+            public void onSuccess(Object value) {
+                // Resolve all callers waiting on this batch
+                settle(onBatchSettled(applied, null));
+            }
+
+            @Override
+            public void onError(String message) {
+                // Reject only callers whose topics weren't applied
+                settle(onBatchSettled(applied, message != null ? message : "Topic batch failed"));
+            }
+        });
+    }
+
+    private synchronized void onBatchApplied(String[] topics, boolean subscribe, Set<String> applied) {
+        // Record confirmed server-side state
+        for (String topic : topics) {
+            mTopicState.put(topic, subscribe);
+            applied.add(topic);
+        }
+
+        // Persist it
+        persistTopicState();
+    }
+
+    private synchronized List<Waiter> onBatchSettled(Set<String> applied, String error) {
+        // Callers with no batch left to wait on
+        List<Waiter> settled = new ArrayList<>();
+
+        // Traverse callers waiting on this batch
+        for (Map.Entry<Waiter, List<String>> entry : mInFlightWaiters.entrySet()) {
+            Waiter waiter = entry.getKey();
+
+            // Any of its topics sent but not applied? (cancelled-out topics were never sent)
+            if (error != null) {
+                for (String topic : entry.getValue()) {
+                    if (mInFlightChanges.containsKey(topic) && !applied.contains(topic)) {
+                        waiter.mError = error;
+                        break;
+                    }
+                }
+            }
+
+            // Done waiting?
+            if (--waiter.mBatchCount == 0) {
+                settled.add(waiter);
+            }
+        }
+
+        // Batch no longer in flight
+        mInFlightChanges.clear();
+        mInFlightWaiters.clear();
+
+        // More changes queued meanwhile?
+        if (!mPendingChanges.isEmpty() || !mPendingWaiters.isEmpty()) {
+            scheduleFlush();
+        }
+
+        // Return callers to settle outside the lock
+        return settled;
+    }
+
+    private static void settle(List<Waiter> waiters) {
+        // Resolve callers whose topics all went through, reject the rest
+        for (Waiter waiter : waiters) {
+            if (waiter.mError == null) {
+                waiter.mCallback.onSuccess("success");
+            }
+            else {
+                waiter.mCallback.onError(waiter.mError);
+            }
+        }
+    }
+
+    private static String[] getTopics(Map<String, Boolean> changes, boolean subscribe) {
+        // Collect topics matching the desired state
+        List<String> topics = new ArrayList<>();
+
+        // Traverse changes
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            if (change.getValue() == subscribe) {
+                topics.add(change.getKey());
+            }
+        }
+
+        // Convert to array
+        return topics.toArray(new String[0]);
+    }
+
+    private synchronized void loadTopicState() {
+        // Get shared preferences handle
+        SharedPreferences sharedPreferences = PushyPersistence.getSettings(mContext);
+
+        // Device token the state belongs to
+        mDeviceToken = sharedPreferences.getString(PushyPersistence.TOPIC_STATE_TOKEN, null);
+
+        // Get persisted topic state
+        String json = sharedPreferences.getString(PushyPersistence.TOPIC_STATE, null);
+
+        // Nothing persisted?
+        if (json == null) {
+            return;
+        }
+
+        try {
+            // Parse state object
+            JSONObject state = new JSONObject(json);
+
+            // Traverse topics
+            Iterator<String> topics = state.keys();
+
+            while (topics.hasNext()) {
+                String topic = topics.next();
+                mTopicState.put(topic, state.getBoolean(topic));
+            }
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to parse persisted topic state:" + e.getMessage(), e);
+        }
+    }
+
+    private void persistTopicState() {
+        // Store topic state & its device token in SharedPreferences
+        PushyPersistence.getSettings(mContext).edit()
+                .putString(PushyPersistence.TOPIC_STATE, new JSONObject(mTopicState).toString())
+                .putString(PushyPersistence.TOPIC_STATE_TOKEN, mDeviceToken)
+                .apply();
+    }
+}
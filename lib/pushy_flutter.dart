@@ -19,12 +19,25 @@ typedef CallbackHandle? _GetCallbackHandle(Function callback);
 const String _eventChannelName = 'me.pushy.sdk.flutter/events';
 const String _methodChannelName = 'me.pushy.sdk.flutter/methods';
 const String _backgroundChannelName = 'me.pushy.sdk.flutter/background';
+const String _blobChannelName = 'me.pushy.sdk.flutter/blobs';
+const String _registrationChannelName = 'me.pushy.sdk.flutter/registration';
+const String _operationChannelName = 'me.pushy.sdk.flutter/operations';
+
+// Reserved payload keys for large payloads delivered out-of-band (Android)
+const String _payloadHandleKey = '_pushyPayloadHandle';
+
+// Pending notification queue eviction policies (order matches native constants)
+enum PushyQueueEvictionPolicy { dropOldest, dropNewest, dropLowestPriority }
 
 class Pushy {
   static const MethodChannel _channel = const MethodChannel(_methodChannelName);
   static const EventChannel _eventChannel =
       const EventChannel(_eventChannelName);
 
+  // Shared broadcast streams (one native listener per engine, however many Dart subscribers)
+  static Stream<Map<String, dynamic>>? _registrationStateStream;
+  static Stream<Map<String, dynamic>>? _operationQueueStream;
+
   static NotificationCallback? _notificationListener;
   static NotificationCallback? _notificationClickListener;
 
@@ -53,39 +66,48 @@ class Pushy {
 
     // Listen for notifications published on event channel
     _eventChannel.receiveBroadcastStream().listen((dynamic data) {
-      // Decode JSON string into map
-      Map<String, dynamic> result = json.decode(data);
-
-      // Notification clicked?
-      if (result['_pushyNotificationClicked'] != null) {
-        // Print debug log
-        print('Pushy notification click: $result');
-
-        // Notification click listener defined?
-        if (_notificationClickListener != null) {
-          _notificationClickListener!(result);
-        } else {
-          // Queue for later
-          notificationClickQueue.add(result);
-        }
-      } else {
-        // Print debug log
-        print('Pushy notification received: $result');
-
-        // Notification received (not clicked)
-        if (_notificationListener != null) {
-          _notificationListener!(result);
-        } else {
-          // Queue for later
-          notificationQueue.add(result);
-        }
+      // Batch of notifications (Android batched delivery)?
+      if (data is List) {
+        // Unpack and handle each one
+        data.forEach((element) {_onEvent(_decodePayload(element));});
+        return;
       }
+
+      // Decode payload into map
+      _onEvent(_decodePayload(data));
     }, onError: (dynamic error) {
       // Print error
       print('Error: ${error.message}');
     });
   }
 
+  static void _onEvent(Map<String, dynamic> result) {
+    // Notification clicked?
+    if (result['_pushyNotificationClicked'] != null) {
+      // Print debug log
+      print('Pushy notification click: $result');
+
+      // Notification click listener defined?
+      if (_notificationClickListener != null) {
+        _notificationClickListener!(result);
+      } else {
+        // Queue for later
+        notificationClickQueue.add(result);
+      }
+    } else {
+      // Print debug log
+      print('Pushy notification received: $result');
+
+      // Notification received (not clicked)
+      if (_notificationListener != null) {
+        _notificationListener!(result);
+      } else {
+        // Queue for later
+        notificationQueue.add(result);
+      }
+    }
+  }
+
   static void requestStoragePermission() {
     // No longer needed (leave for backward compatibility)
   }
@@ -122,11 +144,36 @@ class Pushy {
       return PushyWebSDK.isRegistered();
     }
 
-    // Query for registration status
-    String result = (await _channel.invokeMethod<String>('isRegistered'))!;
+    // Query for registration status (bool on Android, string on iOS)
+    dynamic result = await _channel.invokeMethod('isRegistered');
 
     // Convert string result to bool
-    return result == "true" ? true : false;
+    return result == true || result == "true";
+  }
+
+  static Stream<Map<String, dynamic>> get registrationStateStream {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return const Stream.empty();
+    }
+
+    // Emits {registered, token, authKey} on first listen and whenever it changes
+    return _registrationStateStream ??= const EventChannel(_registrationChannelName)
+        .receiveBroadcastStream()
+        .map((dynamic state) => Map<String, dynamic>.from(state));
+  }
+
+  static Stream<Map<String, dynamic>> get operationQueueStream {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return const Stream.empty();
+    }
+
+    // Emits {id, type, args, status, attempt, error} for queued offline operations
+    // (status: queued, replaced, retrying, succeeded, failed)
+    return _operationQueueStream ??= const EventChannel(_operationChannelName)
+        .receiveBroadcastStream()
+        .map((dynamic event) => Map<String, dynamic>.from(event));
   }
 
   static void setNotificationListener(NotificationCallback fn) {
@@ -301,15 +348,20 @@ class Pushy {
     }
   }
 
-  static void notify(String title, String message, Map<String, dynamic> data) {
+  static void notify(String title, String message, Map<String, dynamic> data,
+      {String? group}) {
     // Android & iOS only
     if (kIsWeb) {
       return;
     }
 
-    // Attempt to display native notification
-    _channel
-        .invokeMethod('notify', <dynamic>[title, message, json.encode(data)]);
+    // Attempt to display native notification (group key only sent if specified)
+    _channel.invokeMethod('notify', <dynamic>[
+      title,
+      message,
+      json.encode(data),
+      if (group != null) group
+    ]);
   }
 
   static void showInAppNotification(String title, String message, Map<String, dynamic> data) {
@@ -342,6 +394,283 @@ class Pushy {
         <dynamic>[credentials['token'], credentials['authKey']]);
   }
 
+  static void setIOExecutorConfig(int concurrency, int timeoutMs) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method
+      _channel.invokeMethod(
+          'setIOExecutorConfig', <dynamic>[concurrency, timeoutMs]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getIOExecutorStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for queue depth, wait time & outcome counters
+    Map? result = await _channel.invokeMethod<Map>('getIOExecutorStats');
+
+    // Convert to typed map
+    return Map<String, dynamic>.from(result ?? {});
+  }
+
+  // useEngineGroup spawns the background engine from the FlutterEngineGroup supplied natively via
+  // PushyFlutterBackgroundExecutor.setEngineGroup() (no-op otherwise)
+  static void setBackgroundEngineOptions(
+      {bool useEngineGroup = false, bool prewarm = false}) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method
+      _channel.invokeMethod(
+          'setBackgroundEngineOptions', <dynamic>[useEngineGroup, prewarm]);
+    }
+  }
+
+  static void setBackgroundEngineIdleTimeout(int seconds) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (0 keeps the engine alive)
+      _channel.invokeMethod('setBackgroundEngineIdleTimeout', <dynamic>[seconds]);
+    }
+  }
+
+  static void setBackgroundDeliveryWindow(int window) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (max. unacknowledged notifications in flight)
+      _channel.invokeMethod('setBackgroundDeliveryWindow', <dynamic>[window]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getPriorityLaneMetrics() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for per-lane (high / normal / low) delivery latency percentiles
+    Map? result = await _channel.invokeMethod<Map>('getPriorityLaneMetrics');
+
+    // Convert to typed map
+    return _toJsonValue(result ?? {});
+  }
+
+  static Future<Map<String, dynamic>> getBackgroundIsolateStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for start mode, cold start latency & RSS
+    Map? result =
+        await _channel.invokeMethod<Map>('getBackgroundIsolateStats');
+
+    // Convert to typed map
+    return Map<String, dynamic>.from(result ?? {});
+  }
+
+  static void setNotificationBatching(int intervalMs) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (0 disables batching)
+      _channel.invokeMethod('setNotificationBatching', <dynamic>[intervalMs]);
+    }
+  }
+
+  static void toggleLegacyPayloadFormat(bool value) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method
+      _channel.invokeMethod('toggleLegacyPayloadFormat', <dynamic>[value]);
+    }
+  }
+
+  static void togglePayloadDeduplication(bool value) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (notifications with a _pushyMessageId are always deduplicated)
+      _channel.invokeMethod('togglePayloadDeduplication', <dynamic>[value]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getDispatcherStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for main thread event & looper message counters
+    Map? result = await _channel.invokeMethod<Map>('getDispatcherStats');
+
+    // Convert to typed map
+    return Map<String, dynamic>.from(result ?? {});
+  }
+
+  static void setLargePayloadThreshold(int bytes) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (0 always delivers payloads inline)
+      _channel.invokeMethod('setLargePayloadThreshold', <dynamic>[bytes]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getLargePayloadStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for out-of-band payload store & fetch counters
+    Map? result = await _channel.invokeMethod<Map>('getLargePayloadStats');
+
+    // Convert to typed map
+    return Map<String, dynamic>.from(result ?? {});
+  }
+
+  static bool isLargePayload(Map<String, dynamic> data) {
+    // Body stored natively, only a handle was delivered?
+    return data.containsKey(_payloadHandleKey);
+  }
+
+  static Future<Map<String, dynamic>> resolvePayload(
+      Map<String, dynamic> data) async {
+    // Payload delivered inline?
+    if (!isLargePayload(data)) {
+      return data;
+    }
+
+    // Binary channel served by the native blob store (works in the background isolate too)
+    const BasicMessageChannel<ByteData> blobChannel =
+        BasicMessageChannel<ByteData>(_blobChannelName, BinaryCodec());
+
+    // Fetch body by handle
+    ByteData? body = await blobChannel.send(ByteData.sublistView(
+        Uint8List.fromList(utf8.encode(data[_payloadHandleKey]))));
+
+    // Expired or unknown handle?
+    if (body == null) {
+      throw Exception('Pushy: Large payload is no longer available');
+    }
+
+    // Decode UTF-8 JSON straight from the native buffer
+    return json.decode(utf8.decode(
+        body.buffer.asUint8List(body.offsetInBytes, body.lengthInBytes)));
+  }
+
+  static void setDeferredStart(bool value) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (takes effect on next app launch)
+      _channel.invokeMethod('setDeferredStart', <dynamic>[value]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getStartupTrace() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for startup phase offsets & durations
+    Map? result = await _channel.invokeMethod<Map>('getStartupTrace');
+
+    // Convert to typed map
+    return _toJsonValue(result ?? {});
+  }
+
+  static void setOfflineQueueEnabled(bool value) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (failed calls reject with code PUSHY QUEUED when retried natively)
+      _channel.invokeMethod('setOfflineQueueEnabled', <dynamic>[value]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getOperationQueueStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for queued operation & retry counters
+    Map? result = await _channel.invokeMethod<Map>('getOperationQueueStats');
+
+    // Convert to typed map
+    return _toJsonValue(result ?? {});
+  }
+
+  static Future<Map<String, dynamic>> getPluginMetrics() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for per-method invocation counts, error counts & latency percentiles
+    Map? result = await _channel.invokeMethod<Map>('getPluginMetrics');
+
+    // Convert to typed map
+    return _toJsonValue(result ?? {});
+  }
+
+  static Future<void> resetPluginMetrics() async {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (also resets getPriorityLaneMetrics())
+      await _channel.invokeMethod('resetPluginMetrics');
+    }
+  }
+
+  static void setNotificationCollapsing(int windowMs) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (0 disables collapsing)
+      _channel.invokeMethod('setNotificationCollapsing', <dynamic>[windowMs]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getNotificationGroupStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for per-group received / posted / collapsed counters
+    Map? result =
+        await _channel.invokeMethod<Map>('getNotificationGroupStats');
+
+    // Convert to typed map
+    return _toJsonValue(result ?? {});
+  }
+
+  static void setPendingQueueLimits(
+      {int maxCount = 0,
+      int maxBytes = 0,
+      PushyQueueEvictionPolicy evictionPolicy =
+          PushyQueueEvictionPolicy.dropOldest,
+      int defaultTtlMs = 0}) {
+    // Android only
+    if (!kIsWeb && Platform.isAndroid) {
+      // Invoke native method (0 = unlimited / no TTL)
+      _channel.invokeMethod('setPendingQueueLimits',
+          <dynamic>[maxCount, maxBytes, evictionPolicy.index, defaultTtlMs]);
+    }
+  }
+
+  static Future<Map<String, dynamic>> getPendingQueueStats() async {
+    // Android only
+    if (kIsWeb || !Platform.isAndroid) {
+      return {};
+    }
+
+    // Query for queue depth, limits & eviction / expiry counters
+    Map? result = await _channel.invokeMethod<Map>('getPendingQueueStats');
+
+    // Convert to typed map
+    return Map<String, dynamic>.from(result ?? {});
+  }
+
   static void setAppId(String? id) {
     // Store app ID for later (for Web SDK)
     appId = id;
@@ -361,8 +690,10 @@ void _isolate() {
   WidgetsFlutterBinding.ensureInitialized();
 
   // Initialize background method channel
-  const MethodChannel _channel =
-      MethodChannel(_backgroundChannelName, JSONMethodCodec());
+  const MethodChannel _channel = MethodChannel(_backgroundChannelName);
+
+  // Sequence numbers already handled by this isolate (native may resend unacknowledged ones)
+  final Set<int> handledSequences = <int>{};
 
   // Listen for push notifications sent via the channel
   _channel.setMethodCallHandler((MethodCall call) async {
@@ -379,28 +710,111 @@ void _isolate() {
     final Function? notificationCallback =
         PluginUtilities.getCallbackFromHandle(handle);
 
-    // Failed?
-    if (notificationCallback == null) {
+    // Failed? Reply with an error so native keeps the notifications for redelivery
+    // (a false reply means the handler ran and threw, and is acknowledged)
+    if (notificationCallback is! NotificationCallback) {
       print('Pushy: Notification callback could not be located');
+      throw PlatformException(
+          code: 'CALLBACK_NOT_FOUND',
+          message: 'Notification callback could not be located');
     }
 
-    // Ensure we found the right one
-    if (notificationCallback is NotificationCallback) {
-      // Decode JSON string into map
-      Map<String, dynamic> data = json.decode(args[1]);
+    // Batch of notifications (Android batched delivery)?
+    final List<dynamic> payloads = call.method == 'onNotificationsReceived'
+        ? args[1]
+        : <dynamic>[args[1]];
+
+    // Sequence numbers to acknowledge (Android only)
+    final List<dynamic>? sequences = args.length > 2 ? args[2] : null;
+
+    // Whether every handler invocation completed without throwing
+    bool handled = true;
+
+    // Traverse notifications
+    for (int i = 0; i < payloads.length; i++) {
+      // Already handled (resent before our acknowledgement arrived)?
+      if (sequences != null && !handledSequences.add(sequences[i])) {
+        continue;
+      }
+
+      // Keep the set bounded (forget oldest sequence numbers)
+      if (handledSequences.length > 1024) {
+        handledSequences.remove(handledSequences.first);
+      }
+
+      // Decode payload into map
+      Map<String, dynamic> data = _decodePayload(payloads[i]);
 
       // Print debug log
       print('Pushy notification received: $data');
 
-      // Invoke app-defined notification handler
-      notificationCallback(data);
+      try {
+        // Invoke app-defined notification handler (and wait for it, if async)
+        final dynamic result = (notificationCallback as Function)(data);
+
+        if (result is Future) {
+          await result;
+        }
+      } catch (e) {
+        // Handler failed (still acknowledged, so it's not redelivered forever)
+        print('Pushy: Notification handler threw: $e');
+        handled = false;
+      }
     }
+
+    // Acknowledge delivery to native
+    return handled;
   });
 
   // Ask for queued notifications to be sent over
   _channel.invokeMethod('notificationCallbackReady');
 }
 
+// Background isolate entry point when spawned from the host app's FlutterEngineGroup (Android)
+@pragma('vm:entry-point')
+void pushyBackgroundIsolate(List<String> args) {
+  // Resolve the isolate callback registered via setNotificationListener()
+  final Function? isolateCallback = args.isEmpty
+      ? null
+      : PluginUtilities.getCallbackFromHandle(
+          CallbackHandle.fromRawHandle(int.parse(args[0])));
+
+  // Run it (fall back to the built-in isolate entry point)
+  if (isolateCallback != null) {
+    isolateCallback();
+  } else {
+    _isolate();
+  }
+}
+
+// Convert a notification payload (native map or JSON string) into a map
+Map<String, dynamic> _decodePayload(dynamic payload) {
+  // Stringified JSON (iOS / legacy Android format)?
+  if (payload is String) {
+    return json.decode(payload);
+  }
+
+  // Native map sent via StandardMessageCodec
+  return _toJsonValue(payload);
+}
+
+// Recursively convert codec maps into string-keyed maps (same shape as json.decode)
+dynamic _toJsonValue(dynamic value) {
+  // Nested map?
+  if (value is Map) {
+    return value.map<String, dynamic>(
+        (key, item) => MapEntry(key.toString(), _toJsonValue(item)));
+  }
+
+  // Nested list?
+  if (value is List) {
+    return value.map(_toJsonValue).toList();
+  }
+
+  // Primitive value
+  return value;
+}
+
 // Callback handle helper method
 _GetCallbackHandle _getCallbackHandle =
     (Function callback) => PluginUtilities.getCallbackHandle(callback);